@@ -1,9 +1,13 @@
 package main;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
 import main.java.com.checkers.api.GameServer;
+import main.java.com.checkers.api.WarmUp;
+import main.java.com.checkers.util.ServerConfig;
 
 public class Main {
     public static void main(String[] args) throws IOException {
@@ -15,12 +19,14 @@ public class Main {
             return;
         }
 
+        ServerConfig config = new ServerConfig(props);
+
         // Get PORT from .env, default to 9000 if not found
-        int port = Integer.parseInt(props.getProperty("PORT", "9000"));
-        String host = props.getProperty("HOST", "localhost");
+        int port = config.getInt("PORT", 9000);
+        String host = config.getString("HOST", "localhost");
 
         // Initialize GameServer
-        GameServer gameServer = new GameServer(host, port);
+        GameServer gameServer = new GameServer(host, port, config);
 
         // Create a thread for handling user input
         Thread inputThread = new Thread(() -> {
@@ -40,7 +46,18 @@ public class Main {
 
         // Start the server
         gameServer.startServer();
-        
+
+        // Warm up the JIT before /ready lets the load balancer send traffic
+        if (config.getBoolean("WARMUP_ENABLED", true)) {
+            System.out.println("Warming up...");
+            WarmUp warmUp = new WarmUp(host, port, config);
+            Map<String, Object> report = warmUp.run();
+            gameServer.markReady(report, warmUp.getSessionIds());
+            System.out.println("Warm-up finished: " + report);
+        } else {
+            gameServer.markReady(null, List.of());
+        }
+
         System.out.println("Server is running...");
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package main.java.com.checkers.ai;
 
 import main.java.com.checkers.game.CheckersData;
 import main.java.com.checkers.game.CheckersMove;
+import main.java.com.checkers.game.PositionHistory;
 
 /**
  * 
@@ -41,6 +42,27 @@ public abstract class AdversarialSearch {
      */
     public abstract CheckersMove makeMove(CheckersMove[] legalMoves);
 
+    /**
+     * @return progress of the current (or last) search, or null if this
+     *         player does not report progress
+     */
+    public SearchSnapshot getLatestSnapshot() {
+        return null;
+    }
+
+    /**
+     * Scales the search budget of the following moves (1 = full budget).
+     */
+    public void setBudgetScale(double scale) {
+    }
+
+    /**
+     * The game's positions since the last capture or man move, or null
+     * when the search has no game behind it.
+     */
+    public void setPositionHistory(PositionHistory history) {
+    }
+
     protected void setMaxIterations(int iterations){
         this.maxIterations = iterations;
     }
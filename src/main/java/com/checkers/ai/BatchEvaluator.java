@@ -0,0 +1,285 @@
+package main.java.com.checkers.ai;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+
+/**
+ * Leaf evaluation shared by every running network search.
+ *
+ * A search hands over its leaf and parks. Pending leaves are run through the
+ * network together as soon as the batch is full, every search in progress is
+ * waiting (nothing else can arrive), or the oldest leaf has waited maxWait.
+ * There is no dispatcher thread: the search whose leaf closes the batch
+ * evaluates it on its own thread and wakes the others, so a lone search
+ * never waits and pays only the lock.
+ *
+ * Searches must bracket their iterations with {@link #enter()} and
+ * {@link #leave()} so the service knows how many leaves to expect.
+ */
+public final class BatchEvaluator {
+
+  /**
+   * One search's request, reused for every leaf of that search.
+   */
+  public static final class Leaf {
+    private CheckersData state;
+    private int side;
+    private List<CheckersMove> moves;
+    private float[] priors = new float[32];
+    private float value;
+    private boolean done; // guarded by the evaluator's lock
+    private final Leaf[] batch;
+
+    private Leaf(int maxBatch) {
+      this.batch = new Leaf[maxBatch];
+    }
+
+    /**
+     * @return the value head for the side to move, -1 to 1
+     */
+    public float getValue() {
+      return value;
+    }
+
+    /**
+     * @return move priors, valid for the first moves.size() entries
+     */
+    public float[] getPriors() {
+      return priors;
+    }
+  }
+
+  // Batch size histogram buckets: 1, 2-3, 4-7, 8-15, 16-31, 32+
+  private static final String[] BUCKETS = { "1", "2-3", "4-7", "8-15", "16-31", "32+" };
+
+  private final int maxBatch;
+  private final long maxWaitNanos;
+  private final NeuralEvaluator evaluator;
+  private final ReentrantLock evaluating = new ReentrantLock();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition finished = lock.newCondition();
+  private final Leaf[] pending;
+  private int pendingCount;
+  private int active;
+
+  // Guarded by lock
+  private long batches;
+  private long leaves;
+  private final long[] sizes = new long[BUCKETS.length];
+  private final long[] leavesBySize = new long[BUCKETS.length];
+  private final long[] evalNanosBySize = new long[BUCKETS.length];
+  private long flushedFull;
+  private long flushedAllWaiting;
+  private long flushedDeadline;
+  private long waitNanos;
+
+  public BatchEvaluator(NetworkWeights weights, int maxBatch, long maxWaitMicros) {
+    this.maxBatch = Math.max(1, maxBatch);
+    this.maxWaitNanos = Math.max(0, maxWaitMicros) * 1000;
+    this.evaluator = new NeuralEvaluator(weights, this.maxBatch);
+    this.pending = new Leaf[this.maxBatch];
+  }
+
+  public Leaf newLeaf() {
+    return new Leaf(maxBatch);
+  }
+
+  /**
+   * Registers a search that is about to submit leaves.
+   */
+  public void enter() {
+    lock.lock();
+    try {
+      active++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Unregisters a search; waiting leaves are flushed if everyone left is
+   * now waiting.
+   */
+  public void leave() {
+    Leaf closer = null;
+    int n = 0;
+    lock.lock();
+    try {
+      active--;
+      if (pendingCount > 0 && pendingCount >= active) {
+        closer = pending[0];
+        n = drain(closer.batch);
+        flushedAllWaiting++;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (n > 0) {
+      runBatch(closer.batch, n);
+    }
+  }
+
+  /**
+   * Evaluates a position, waiting for the rest of its batch. On return the
+   * leaf holds the value and the priors of the given moves.
+   */
+  public void evaluate(Leaf leaf, CheckersData state, int side, List<CheckersMove> moves) {
+    leaf.state = state;
+    leaf.side = side;
+    leaf.moves = moves;
+    if (leaf.priors.length < moves.size()) {
+      leaf.priors = new float[moves.size()];
+    }
+
+    long submitted = System.nanoTime();
+    int n = 0;
+    lock.lock();
+    try {
+      leaf.done = false;
+      pending[pendingCount++] = leaf;
+      if (pendingCount >= maxBatch) {
+        n = drain(leaf.batch);
+        flushedFull++;
+      } else if (pendingCount >= active) {
+        n = drain(leaf.batch);
+        flushedAllWaiting++;
+      } else {
+        long deadline = submitted + maxWaitNanos;
+        while (!leaf.done) {
+          long left = deadline - System.nanoTime();
+          if (left <= 0) {
+            if (isPending(leaf)) {
+              n = drain(leaf.batch);
+              flushedDeadline++;
+            }
+            break;
+          }
+          finished.awaitNanos(left);
+        }
+      }
+    } catch (InterruptedException e) {
+      // Still owe the search a result; finish the batch ourselves
+      Thread.currentThread().interrupt();
+      if (isPending(leaf)) {
+        n = drain(leaf.batch);
+        flushedDeadline++;
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (n > 0) {
+      runBatch(leaf.batch, n);
+    }
+    // Another search took our leaf and is evaluating it
+    lock.lock();
+    try {
+      while (!leaf.done) {
+        finished.awaitUninterruptibly();
+      }
+      waitNanos += System.nanoTime() - submitted;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isPending(Leaf leaf) {
+    for (int i = 0; i < pendingCount; i++) {
+      if (pending[i] == leaf) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Moves every pending leaf into batch; caller holds lock
+  private int drain(Leaf[] batch) {
+    int n = pendingCount;
+    System.arraycopy(pending, 0, batch, 0, n);
+    for (int i = 0; i < n; i++) {
+      pending[i] = null;
+    }
+    pendingCount = 0;
+    return n;
+  }
+
+  private void runBatch(Leaf[] batch, int n) {
+    long elapsed;
+    evaluating.lock();
+    long start = System.nanoTime();
+    try {
+      evaluator.clear();
+      for (int i = 0; i < n; i++) {
+        evaluator.add(batch[i].state, batch[i].side);
+      }
+      evaluator.run();
+      for (int i = 0; i < n; i++) {
+        Leaf leaf = batch[i];
+        leaf.value = evaluator.value(i);
+        evaluator.priors(i, leaf.moves, leaf.priors);
+      }
+      elapsed = System.nanoTime() - start;
+    } finally {
+      evaluating.unlock();
+    }
+
+    lock.lock();
+    try {
+      for (int i = 0; i < n; i++) {
+        batch[i].done = true;
+        batch[i].state = null;
+        batch[i].moves = null;
+        batch[i] = null;
+      }
+      int bucket = Math.min(BUCKETS.length - 1, 31 - Integer.numberOfLeadingZeros(n));
+      batches++;
+      leaves += n;
+      sizes[bucket]++;
+      leavesBySize[bucket] += n;
+      evalNanosBySize[bucket] += elapsed;
+      finished.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Map<String, Object> getStats() {
+    lock.lock();
+    try {
+      Map<String, Object> stats = new LinkedHashMap<>();
+      stats.put("maxBatch", maxBatch);
+      stats.put("maxWaitMicros", maxWaitNanos / 1000);
+      stats.put("activeSearches", active);
+      stats.put("batches", batches);
+      stats.put("leaves", leaves);
+      stats.put("meanBatch", (batches == 0) ? 0.0 : (double) leaves / batches);
+      stats.put("meanWaitMicros", (leaves == 0) ? 0.0 : waitNanos / 1000.0 / leaves);
+      stats.put("flushedFull", flushedFull);
+      stats.put("flushedAllWaiting", flushedAllWaiting);
+      stats.put("flushedDeadline", flushedDeadline);
+
+      // Evaluation throughput per batch size, excluding time spent waiting
+      Map<String, Object> bySize = new LinkedHashMap<>();
+      for (int b = 0; b < BUCKETS.length; b++) {
+        if (sizes[b] == 0) {
+          continue;
+        }
+        Map<String, Object> bucket = new LinkedHashMap<>();
+        bucket.put("batches", sizes[b]);
+        bucket.put("leaves", leavesBySize[b]);
+        bucket.put("leavesPerSec", Math.round(leavesBySize[b] / (evalNanosBySize[b] / 1e9)));
+        bySize.put(BUCKETS[b], bucket);
+      }
+      stats.put("bySize", bySize);
+      return stats;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
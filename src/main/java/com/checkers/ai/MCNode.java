@@ -12,6 +12,11 @@ import main.java.com.checkers.game.GameState;
  */
 public class MCNode<E extends GameState<M>, M> {
 
+  // MCTS-Solver results, from the view of the player who moved into the node
+  public static final int UNKNOWN = 0;
+  public static final int PROVEN_WIN = 1;
+  public static final int PROVEN_LOSS = -1;
+
   // State of the game at this node
   private E state;
 
@@ -28,6 +33,20 @@ public class MCNode<E extends GameState<M>, M> {
   private int visits;
   private double totalReward;
 
+  // PUCT: the policy's prior for the move into this node, and whether this
+  // node's children have been created (a node expanded with no children is
+  // a finished game)
+  private float prior;
+  private boolean expanded;
+
+  // Game-theoretic value once proven; solved subtrees are not searched again
+  private int proven = UNKNOWN;
+
+  // RAVE: all-moves-as-first statistics for the move into this node, from
+  // every iteration in which its mover played that move at any later point
+  private int amafVisits;
+  private double amafReward;
+
   // Unexplored moves from this node
   private List<M> unexploredMoves;
 
@@ -91,6 +110,77 @@ public class MCNode<E extends GameState<M>, M> {
     this.totalReward += reward;
   }
 
+  public float getPrior() {
+    return prior;
+  }
+
+  public void setPrior(float prior) {
+    this.prior = prior;
+  }
+
+  public boolean isExpanded() {
+    return expanded;
+  }
+
+  public void setExpanded(boolean expanded) {
+    this.expanded = expanded;
+  }
+
+  public int getAmafVisits() {
+    return amafVisits;
+  }
+
+  public double getAmafReward() {
+    return amafReward;
+  }
+
+  public void updateAmaf(double reward) {
+    this.amafVisits++;
+    this.amafReward += reward;
+  }
+
+  public int getProven() {
+    return proven;
+  }
+
+  public void setProven(int proven) {
+    this.proven = proven;
+  }
+
+  public boolean isSolved() {
+    return proven != UNKNOWN;
+  }
+
+  /**
+   * Passes this node's proven result up with minimax logic: a parent is lost
+   * for whoever moved into it as soon as one child is a proven win (the side
+   * to move there has a winning reply), and won once every move from it has
+   * been tried and each is a proven loss.
+   */
+  public void propagateProof() {
+    MCNode<E, M> node = this;
+    while (node.proven != UNKNOWN && node.parent != null && node.parent.proven == UNKNOWN) {
+      MCNode<E, M> parent = node.parent;
+      if (node.proven == PROVEN_WIN) {
+        parent.proven = PROVEN_LOSS;
+      } else if (parent.unexploredMoves.isEmpty() && parent.allChildrenLost()) {
+        parent.proven = PROVEN_WIN;
+      } else {
+        return;
+      }
+      node = parent;
+    }
+  }
+
+  private boolean allChildrenLost() {
+    for (MCNode<E, M> child : children) {
+      if (child.proven != PROVEN_LOSS) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public List<M> getUnexploredMoves() {
     return unexploredMoves;
   }
@@ -141,12 +231,23 @@ public class MCNode<E extends GameState<M>, M> {
   }
 
   /**
-   * Selects the child node with the highest UCB1 score.
+   * Selects the unsolved child node with the highest UCB1 score.
    *
    * @param explorationConstant The exploration constant (e.g., √2 for MCTS).
-   * @return The selected child node.
+   * @return The selected child node, or null if every child is solved.
    */
   public MCNode<E, M> selectChildUsingUCB1(double explorationConstant) {
+    return selectChildUsingUCB1(explorationConstant, 0);
+  }
+
+  /**
+   * UCB1 with RAVE: the exploitation term blends the child's mean with its
+   * AMAF mean, weighted by beta = sqrt(k / (3n + k)), so AMAF dominates
+   * while the child has few visits of its own and fades as they grow.
+   *
+   * @param raveK visits at which both means weigh about the same (0 = off)
+   */
+  public MCNode<E, M> selectChildUsingUCB1(double explorationConstant, double raveK) {
     if (children.isEmpty()) {
       throw new IllegalStateException(
         "Cannot select a child from a node with no children."
@@ -157,11 +258,20 @@ public class MCNode<E extends GameState<M>, M> {
     double bestScore = Double.NEGATIVE_INFINITY;
 
     for (MCNode<E, M> child : children) {
+      if (child.proven != UNKNOWN) {
+        continue;
+      }
       double exploitation = child.totalReward / (child.visits + 1e-6); // Avoid division by zero
+      if (raveK > 0 && child.amafVisits > 0) {
+        double beta = Math.sqrt(raveK / (3.0 * child.visits + raveK));
+        exploitation = (1 - beta) * exploitation + beta * child.amafReward / child.amafVisits;
+      }
       double exploration =
         explorationConstant *
         Math.sqrt(Math.log(this.visits + 1) / (child.visits + 1e-6));
-      double ucb1Score = exploitation + exploration;
+      // Progressive bias: a prior's pull fades as the child gathers visits
+      double bias = child.prior / (child.visits + 1);
+      double ucb1Score = exploitation + exploration + bias;
 
       if (ucb1Score > bestScore) {
         bestScore = ucb1Score;
@@ -172,6 +282,40 @@ public class MCNode<E extends GameState<M>, M> {
     return bestChild;
   }
 
+  /**
+   * Selects the unsolved child with the highest PUCT score,
+   * Q + c * P * sqrt(N) / (1 + n). Rewards are from the view of the player
+   * who moved into the child; unvisited children count as even (0.5).
+   *
+   * @param explorationConstant weight of the prior term (c)
+   * @return The selected child node, or null if every child is solved.
+   */
+  public MCNode<E, M> selectChildUsingPUCT(double explorationConstant) {
+    if (children.isEmpty()) {
+      throw new IllegalStateException(
+        "Cannot select a child from a node with no children."
+      );
+    }
+
+    MCNode<E, M> bestChild = null;
+    double bestScore = Double.NEGATIVE_INFINITY;
+    double scale = explorationConstant * Math.sqrt(Math.max(1, this.visits));
+
+    for (MCNode<E, M> child : children) {
+      if (child.proven != UNKNOWN) {
+        continue;
+      }
+      double q = (child.visits == 0) ? 0.5 : child.totalReward / child.visits;
+      double score = q + scale * child.prior / (1 + child.visits);
+      if (score > bestScore) {
+        bestScore = score;
+        bestChild = child;
+      }
+    }
+
+    return bestChild;
+  }
+
   @Override
   public String toString() {
     return toString(1, 0); // Default depth of 2
@@ -4,14 +4,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import main.java.com.checkers.game.CheckersData;
 import main.java.com.checkers.game.CheckersData.Cell;
 import main.java.com.checkers.game.CheckersMove;
+import main.java.com.checkers.game.PositionHistory;
 
 /**
  * This class implements the Monte Carlo Tree Search (MCTS) method
  * to find the best move at the current state of the Checkers game.
+ *
+ * Without network weights it selects with UCB1 and scores leaves with random
+ * rollouts. With weights it selects with PUCT: each expansion creates all
+ * children with the policy's priors, and the value head replaces the rollout.
  */
 public class MonteCarloTreeSearch extends AdversarialSearch {
 
@@ -21,10 +30,65 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
   private final int MEDIUM = 2;
   private final int HARD = 3;
 
-  private final int AI;
+  private final int difficulty;
+
+  // Progress reporting for observers (e.g. SSE); written only by the search thread
+  private final int snapshotEvery = SearchSettings.getSnapshotEvery();
+  private volatile SearchSnapshot latestSnapshot;
+
+  // PUCT mode only
+  private final NeuralEvaluator evaluator;
+  private float[] priors = new float[32];
+  // Shared leaf batching instead of the own evaluator, when configured
+  private BatchEvaluator batcher;
+  private BatchEvaluator.Leaf leaf;
+
+  // Rollout mode: expansion order and progressive widening
+  private boolean moveOrdering = SearchSettings.isMoveOrdering();
+  private int widenBase = SearchSettings.getWidenBase();
+  private final double widenExponent = SearchSettings.getWidenExponent();
+
+  // RAVE weight for this difficulty (0 = plain UCB1), and the moves of the
+  // current iteration's playout as packed from-to keys with their colors
+  private double raveK;
+  private int[] playoutKeys = new int[64];
+  private int[] playoutSides = new int[64];
+  private int playoutLength;
+  private final boolean[][] amafSeen = new boolean[2][4096];
+  private final int[] amafMarked = new int[2 * 4096];
+  private int amafMarkedCount;
+
+  // Playouts end in a draw by repetition or the no-progress rule like games
+  private final PositionHistory playoutHistory = new PositionHistory();
+  // Playout lengths in plies, bucketed by powers of two from 16 up to 512+
+  private static final String[] LENGTH_BUCKETS = { "<16", "<32", "<64", "<128", "<256", "<512", ">=512" };
+  private final long[] playoutLengths = new long[LENGTH_BUCKETS.length];
+  private long playouts;
+  private long playoutPlies;
+  private int longestPlayout;
+  private long playoutDraws;
+
+  // Stop early once a search has run this long (0 = iterations only)
+  private long timeBudgetNanos;
+
+  // Fair-share throttling: fraction of the budget the next searches may use
+  private double budgetScale = 1.0;
+  private int iterationLimit;
+  private long timeLimitNanos;
+
+  // The game's draw-rule history; the cache key does not cover it
+  private PositionHistory gameHistory;
 
   public MonteCarloTreeSearch(int ai, int difficulty) {
-    this.AI = ai;
+    this(ai, difficulty, SearchSettings.getNetworkWeights());
+  }
+
+  /**
+   * @param weights network for PUCT search, or null for rollouts
+   */
+  public MonteCarloTreeSearch(int ai, int difficulty, NetworkWeights weights) {
+    this.player = ai; // until setCheckersData names the side to move
+    this.difficulty = difficulty;
     switch (difficulty) {
       case EASY -> super.setMaxIterations(50);
       case MEDIUM -> super.setMaxIterations(250);
@@ -32,7 +96,57 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
       default -> throw new IllegalArgumentException("Invalid difficulty level");
     }
 
-    super.setConstant(Math.sqrt(2));
+    if (weights != null) {
+      this.evaluator = new NeuralEvaluator(weights);
+      super.setMaxIterations((int) Math.max(1, maxIterations * SearchSettings.getNetworkIterationScale()));
+      super.setConstant(SearchSettings.getPuctConstant());
+      if (weights == SearchSettings.getNetworkWeights()) {
+        setBatchEvaluator(SearchSettings.getBatchEvaluator());
+      }
+    } else {
+      this.evaluator = null;
+      this.raveK = SearchSettings.getRaveK(difficulty);
+      super.setConstant(Math.sqrt(2));
+    }
+  }
+
+  /**
+   * Sends leaf evaluations to a shared batching service (network search
+   * only); null evaluates them here.
+   */
+  public void setBatchEvaluator(BatchEvaluator batcher) {
+    this.batcher = (evaluator != null) ? batcher : null;
+    this.leaf = (this.batcher != null) ? this.batcher.newLeaf() : null;
+  }
+
+  /**
+   * RAVE weight for the rollout search; 0 turns RAVE off.
+   */
+  public void setRaveK(double raveK) {
+    this.raveK = raveK;
+  }
+
+  /**
+   * Turns prior-ordered expansion and progressive widening on or off for
+   * the rollout search.
+   */
+  public void setMoveOrdering(boolean enabled) {
+    this.moveOrdering = enabled;
+    this.widenBase = enabled ? SearchSettings.getWidenBase() : 0;
+  }
+
+  public void setTimeBudgetMillis(long millis) {
+    this.timeBudgetNanos = millis * 1_000_000;
+  }
+
+  @Override
+  public void setPositionHistory(PositionHistory history) {
+    this.gameHistory = history;
+  }
+
+  @Override
+  public void setBudgetScale(double scale) {
+    this.budgetScale = Math.max(0.0, Math.min(1.0, scale));
   }
 
   /**
@@ -43,14 +157,93 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
    */
   @Override
   public CheckersMove makeMove(CheckersMove[] legalMoves) {
-  
+    // Step 0: Reuse a search of the same position from any session
+    SearchCache cache = SearchCache.shared();
+    // Only a fresh history (right after a capture or man move) makes the
+    // position alone a safe key; otherwise a cached move may walk this game
+    // into a repetition or no-progress draw
+    boolean freshHistory = gameHistory == null || gameHistory.getPliesWithoutProgress() == 0;
+    SearchCache.Key key = (cache.isEnabled() && freshHistory) ? SearchCache.Key.of(board, player, difficulty) : null;
+    if (key != null) {
+      SearchCache.Entry cached = cache.lookup(key);
+      CheckersMove move = (cached != null) ? findMove(legalMoves, cache.choose(cached)) : null;
+      if (move != null) {
+        latestSnapshot = new SearchSnapshot(0, maxIterations, 0, move.toPath(), cached.rootMoves(), true);
+        return move;
+      }
+    }
+    long cpuStart = SearchCache.threadCpuNanos();
+    iterationLimit = Math.max(1, (int) Math.round(maxIterations * budgetScale));
+    timeLimitNanos = (long) (timeBudgetNanos * budgetScale);
+
     // Step 1: Create the root node and initialize the MCTree
-    MCNode<CheckersData, CheckersMove> root = new MCNode<>(board, null, null); // Current board as the root state
-    
-    // Step 2: Add all legal moves as unexplored moves in the root node
-    root.setUnexploredMoves(new ArrayList<>(Arrays.asList(legalMoves)));
-    // Step 3: Run MCTS iterations
-    for (int i = 0; i < maxIterations; i++) {
+    long startNanos = System.nanoTime();
+    BatchEvaluator batcher = this.batcher;
+    if (batcher != null) {
+      batcher.enter();
+    }
+    MCNode<CheckersData, CheckersMove> root;
+    int iterations;
+    try {
+      root = createRoot(legalMoves);
+      publishSnapshot(root, 0, startNanos, null);
+      iterations = runIterations(root, startNanos);
+    } finally {
+      if (batcher != null) {
+        batcher.leave();
+      }
+    }
+    // Step 4: Choose the best move (child of root with highest visit count)
+    CheckersMove bestMove = getBestMove(root);
+    publishSnapshot(root, iterations, startNanos, bestMove);
+
+    // A throttled search is weaker than the difficulty promises; keep it out
+    if (key != null && budgetScale >= 1.0) {
+      cache.store(
+        key,
+        new SearchCache.Entry(bestMove.toPath(), latestSnapshot.getRootMoves(), SearchCache.threadCpuNanos() - cpuStart)
+      );
+    }
+    return bestMove;
+  }
+
+  private MCNode<CheckersData, CheckersMove> createRoot(CheckersMove[] legalMoves) {
+    MCNode<CheckersData, CheckersMove> root;
+    if (evaluator != null) {
+      // Own copy with the mover set, since children are made from it
+      CheckersData rootState = board.clone();
+      rootState.setCurrentPlayer(player);
+      root = new MCNode<>(rootState, null, null);
+      expandWithNetwork(root, player, Arrays.asList(legalMoves));
+    } else {
+      root = new MCNode<>(board, null, null); // Current board as the root state
+
+      // Step 2: Add all legal moves as unexplored moves in the root node
+      root.setUnexploredMoves(orderMoves(board, new ArrayList<>(Arrays.asList(legalMoves))));
+    }
+    return root;
+  }
+
+  // Step 3: Run MCTS iterations
+  private int runIterations(MCNode<CheckersData, CheckersMove> root, long startNanos) {
+    int iterations = 0;
+    for (; iterations < iterationLimit; iterations++) {
+      int i = iterations;
+      if (timeLimitNanos > 0 && System.nanoTime() - startNanos >= timeLimitNanos) {
+        break;
+      }
+      // Solved: either a move is a proven win or every move is a proven loss
+      if (root.isSolved()) {
+        break;
+      }
+      if (snapshotEvery > 0 && i > 0 && i % snapshotEvery == 0) {
+        publishSnapshot(root, i, startNanos, null);
+      }
+      if (evaluator != null) {
+        networkIteration(root);
+        continue;
+      }
+
       MCNode<CheckersData, CheckersMove> selectedNode = selection(root);
       MCNode<CheckersData, CheckersMove> expandedNode = expansion(selectedNode);
       // Skip simulation and backpropagation if expansion returns null
@@ -58,13 +251,159 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
         continue; // Skip to the next iteration
       }
 
-      double simulationResult = simulation(expandedNode);
+      // A finished game needs no playout; its result is exact
+      double simulationResult;
+      if (expandedNode.isSolved()) {
+        expandedNode.propagateProof();
+        playoutLength = 0;
+        simulationResult = terminalReward(expandedNode);
+      } else {
+        simulationResult = simulation(expandedNode);
+      }
       backPropagation(expandedNode, simulationResult);
+      if (raveK > 0) {
+        updateAmaf(expandedNode, simulationResult);
+      }
     }
-    // Step 4: Choose the best move (child of root with highest visit count)
-    CheckersMove bestMove = getBestMove(root);
+    return iterations;
+  }
 
-    return bestMove;
+  // The legal move with the given path, or null if there is none
+  private static CheckersMove findMove(CheckersMove[] legalMoves, int[][] path) {
+    for (CheckersMove move : legalMoves) {
+      if (Arrays.deepEquals(move.toPath(), path)) {
+        return move;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * One PUCT iteration: descend by PUCT to a leaf, expand it and score it
+   * with the value head, then back the value up, flipping it at each level
+   * so every node holds rewards for the player who moved into it.
+   */
+  private void networkIteration(MCNode<CheckersData, CheckersMove> root) {
+    MCNode<CheckersData, CheckersMove> node = root;
+    int side = player;
+    while (node.isExpanded() && !node.getChildren().isEmpty()) {
+      MCNode<CheckersData, CheckersMove> next = node.selectChildUsingPUCT(C);
+      if (next == null) {
+        break; // every child solved, so this node is proven too
+      }
+      node = next;
+      side = (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+      if (node.getState() == null) {
+        node.setState(node.getParent().getNewState(node.getMove()));
+      }
+    }
+
+    // Proven nodes score exactly: a win for the player who moved into the
+    // node means the side to move there has lost
+    double value;
+    if (node.isSolved()) {
+      value = (node.getProven() == MCNode.PROVEN_WIN) ? 0.0 : 1.0;
+    } else {
+      value = expandWithNetwork(node, side, legalMoves(node.getState(), side));
+    }
+
+    double reward = 1.0 - value;
+    while (node != null) {
+      node.incrementVisits();
+      node.updateReward(reward);
+      reward = 1.0 - reward;
+      node = node.getParent();
+    }
+  }
+
+  /**
+   * Adds a child per move with its prior; states are made on first visit.
+   *
+   * @return the value for the side to move, 0 (lost) to 1 (won)
+   */
+  private double expandWithNetwork(
+    MCNode<CheckersData, CheckersMove> node,
+    int side,
+    List<CheckersMove> moves
+  ) {
+    node.setExpanded(true);
+    if (moves.isEmpty()) {
+      // The side to move has lost
+      node.setProven(MCNode.PROVEN_WIN);
+      node.propagateProof();
+      return 0.0;
+    }
+    float value;
+    float[] priors;
+    if (batcher != null) {
+      batcher.evaluate(leaf, node.getState(), side, moves);
+      value = leaf.getValue();
+      priors = leaf.getPriors();
+    } else {
+      value = evaluator.evaluate(node.getState(), side);
+      if (this.priors.length < moves.size()) {
+        this.priors = new float[moves.size()];
+      }
+      priors = this.priors;
+      evaluator.priors(moves, priors);
+    }
+    for (int i = 0; i < moves.size(); i++) {
+      MCNode<CheckersData, CheckersMove> child = new MCNode<>(null, moves.get(i), node);
+      child.setPrior(priors[i]);
+      node.addChild(child);
+    }
+    return (value + 1.0) / 2.0;
+  }
+
+  private static List<CheckersMove> legalMoves(CheckersData state, int side) {
+    return state.getLegalMovesMap(side).values().stream()
+      .flatMap(Collection::stream)
+      .filter(move -> move != null && move.getSize() > 1)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Publishes an immutable summary of the root statistics. A non-null
+   * chosenMove marks the final snapshot of the search.
+   */
+  private void publishSnapshot(
+    MCNode<CheckersData, CheckersMove> root,
+    int iterations,
+    long startNanos,
+    CheckersMove chosenMove
+  ) {
+    List<SearchSnapshot.RootMove> rootMoves = new ArrayList<>();
+    MCNode<CheckersData, CheckersMove> mostVisited = null;
+    int totalVisits = Math.max(1, root.getVisits());
+    for (MCNode<CheckersData, CheckersMove> child : root.getChildren()) {
+      rootMoves.add(
+        new SearchSnapshot.RootMove(
+          child.getMove().toPath(),
+          child.getVisits(),
+          (double) child.getVisits() / totalVisits
+        )
+      );
+      if (mostVisited == null || child.getVisits() > mostVisited.getVisits()) {
+        mostVisited = child;
+      }
+    }
+
+    CheckersMove best = (chosenMove != null)
+      ? chosenMove
+      : (mostVisited != null ? mostVisited.getMove() : null);
+    latestSnapshot = new SearchSnapshot(
+      iterations,
+      iterationLimit,
+      (System.nanoTime() - startNanos) / 1_000_000,
+      best != null ? best.toPath() : null,
+      rootMoves,
+      chosenMove != null
+    );
+  }
+
+  @Override
+  public SearchSnapshot getLatestSnapshot() {
+    return latestSnapshot;
   }
 
   /**
@@ -77,18 +416,43 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
   private MCNode<CheckersData, CheckersMove> selection(
     MCNode<CheckersData, CheckersMove> node
   ) {
-    while (
-      !node.getChildren().isEmpty() || !node.getUnexploredMoves().isEmpty()
-    ) {
-      if (node.getUnexploredMoves().isEmpty()) {
-        node = node.selectChildUsingUCB1(C);
-      } else {
+    while (!node.getChildren().isEmpty()) {
+      boolean canWiden = !node.getUnexploredMoves().isEmpty()
+        && node.getChildren().size() < childLimit(node);
+      if (canWiden) {
+        break;
+      }
+      // Solved children are not searched again; with all of them solved,
+      // expand one of the remaining moves
+      MCNode<CheckersData, CheckersMove> next = node.selectChildUsingUCB1(C, raveK);
+      if (next == null) {
         break;
       }
+      node = next;
     }
     return node;
   }
 
+  /**
+   * Progressive widening: how many children a node may have at its current
+   * visit count. The rest of its moves wait, best first, until it has been
+   * visited enough to earn them.
+   */
+  private int childLimit(MCNode<CheckersData, CheckersMove> node) {
+    if (widenBase <= 0) {
+      return Integer.MAX_VALUE;
+    }
+    return widenBase + (int) Math.pow(node.getVisits(), widenExponent);
+  }
+
+  // Sorts moves so the most promising is last, where expansion takes it from
+  private ArrayList<CheckersMove> orderMoves(CheckersData state, ArrayList<CheckersMove> moves) {
+    if (moveOrdering) {
+      MovePriors.order(state, moves);
+    }
+    return moves;
+  }
+
   /**
    * Expansion step: Add a child node corresponding to an unexplored move.
    *
@@ -99,14 +463,13 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
     MCNode<CheckersData, CheckersMove> node
   ) {
     // Ensure there are unexplored moves
-    
-    // Ensure there are unexplored moves
-    if (node.getUnexploredMoves().isEmpty()) {
+    List<CheckersMove> unexplored = node.getUnexploredMoves();
+    if (unexplored.isEmpty()) {
       return null; // Skip this expansion
     }
 
-    // Select the first unexplored move (arbitrary choice for now)
-    CheckersMove moveToExpand = node.getUnexploredMoves().remove(0);
+    // Take the best remaining move, kept at the end of the list
+    CheckersMove moveToExpand = unexplored.remove(unexplored.size() - 1);
 
     // Generate a new state by applying the move
     CheckersData newState = node.getNewState(moveToExpand);
@@ -117,15 +480,23 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
       moveToExpand,
       node
     );
+    if (moveOrdering) {
+      childNode.setPrior(MovePriors.bias(node.getState(), moveToExpand));
+    }
 
-   // Get legal moves for the new state and flatten them into a single list
-    HashMap<Cell, ArrayList<CheckersMove>> moves = childNode.getState().getLegalMovesMap(AI);
+   // Get legal moves for the side to move in the new state and flatten them
+    int toMove = opponent(moverOf(node.getState(), moveToExpand));
+    HashMap<Cell, ArrayList<CheckersMove>> moves = childNode.getState().getLegalMovesMap(toMove);
     ArrayList<CheckersMove> unexploredMoves = moves.values().stream()
        .flatMap(Collection::stream)
        .filter(move -> move != null && move.getSize() > 1)
        .collect(Collectors.toCollection(ArrayList::new));
    
-   childNode.setUnexploredMoves(unexploredMoves);
+   childNode.setUnexploredMoves(orderMoves(newState, unexploredMoves));
+    // The side to move cannot move: the game is over and the mover has won
+    if (unexploredMoves.isEmpty()) {
+      childNode.setProven(MCNode.PROVEN_WIN);
+    }
     // Add the new child to the current node
     node.addChild(childNode);
 
@@ -133,45 +504,183 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
     return childNode;
   }
 
+  // Color of the piece a move starts from
+  private static int moverOf(CheckersData state, CheckersMove move) {
+    int piece = state.getPiece(move.getRow(0), move.getCol(0));
+    return (piece == CheckersData.RED || piece == CheckersData.RED_KING) ? CheckersData.RED : CheckersData.BLACK;
+  }
+
+  private static int opponent(int side) {
+    return (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+  }
+
+  /**
+   * Exact result of a finished game at a solved node, on the same scale as
+   * {@link #simulation}.
+   */
+  private static double terminalReward(MCNode<CheckersData, CheckersMove> node) {
+    return (node.getProven() == MCNode.PROVEN_WIN) ? 1.0 : 0.0;
+  }
+
   /**
    * Simulation step: Perform a random playout starting from the node.
    *
    * @param node The node to simulate from.
-   * @return The result of the simulation (e.g., 1 for win, 0 for loss, 0.5 for draw).
+   * @return The result for the player who moved into the node: 1 for a win,
+   *         0 for a loss, 0.5 for a draw.
    */
   private double simulation(MCNode<CheckersData, CheckersMove> node) {
-    
     CheckersData state = node.getState().clone();  // Make sure to clone initial state
-    int currentPlayer = (AI == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;  // Start with opposite player
-    int endCondition = -1;
-    int moves = 0;
-    final int MAX_MOVES = 5;  // Prevent infinite loops
-    
-    while (endCondition == -1) {
-        state = state.newRandomState(currentPlayer);
-        if (state == null) break;
-        
-        endCondition = state.terminationState(currentPlayer);
-        if (endCondition != -1) break;
-        
-        currentPlayer = (currentPlayer == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
-        moves++;
-        //state.printGameState();
+    int mover = moverOf(node.getParent().getState(), node.getMove());
+    int currentPlayer = opponent(mover); // the side to move at the node
+    int winner = 0;
+    playoutLength = 0;
+    playoutHistory.reset(state, currentPlayer);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    // Moves are applied to the one private copy; the playout keeps them for RAVE
+    while (true) {
+        List<CheckersMove> moves = legalMoves(state, currentPlayer);
+        if (moves.isEmpty()) {
+            winner = opponent(currentPlayer); // no move left: the side to move loses
+            break;
+        }
+
+        CheckersMove move = moves.get(random.nextInt(moves.size()));
+        recordPlayoutMove(currentPlayer, move);
+        boolean progress = PositionHistory.isProgress(state, move);
+        state.applyMove(move);
+
+        int endCondition = state.terminationState(currentPlayer);
+        if (endCondition == 0) {
+            winner = CheckersData.BLACK; // RED has no pieces left
+            break;
+        }
+        if (endCondition == 1) {
+            winner = CheckersData.RED;
+            break;
+        }
+        if (endCondition == 2) {
+            break; // Draw
+        }
+        currentPlayer = opponent(currentPlayer);
+        playoutHistory.push(state, currentPlayer, progress);
+        if (playoutHistory.isDraw()) {
+            break;
+        }
     }
 
-    // Update results based on termination state
-    if (endCondition == 0) return 1.0; // AI wins
-    if (endCondition == 1) return 0.0; // Player wins
-    if (endCondition == 2) return 0.5; // Draw
-    return 0;
+    recordPlayoutLength(winner);
+    if (winner == 0) return 0.5;
+    return (winner == mover) ? 1.0 : 0.0;
+  }
+
+  private void recordPlayoutLength(int winner) {
+    int bucket = Math.max(0, Math.min(LENGTH_BUCKETS.length - 1, 28 - Integer.numberOfLeadingZeros(playoutLength | 1)));
+    playoutLengths[bucket]++;
+    playouts++;
+    playoutPlies += playoutLength;
+    longestPlayout = Math.max(longestPlayout, playoutLength);
+    if (winner == 0) {
+      playoutDraws++;
+    }
+  }
+
+  /**
+   * Length distribution of every playout this engine has run.
+   */
+  public Map<String, Object> getPlayoutStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("playouts", playouts);
+    stats.put("meanPlies", (playouts == 0) ? 0.0 : (double) playoutPlies / playouts);
+    stats.put("maxPlies", longestPlayout);
+    stats.put("draws", playoutDraws);
+    Map<String, Object> lengths = new LinkedHashMap<>();
+    for (int b = 0; b < LENGTH_BUCKETS.length; b++) {
+      lengths.put(LENGTH_BUCKETS[b], playoutLengths[b]);
+    }
+    stats.put("lengths", lengths);
+    return stats;
+  }
+
+  private void recordPlayoutMove(int side, CheckersMove move) {
+    if (playoutLength == playoutKeys.length) {
+      playoutKeys = Arrays.copyOf(playoutKeys, playoutLength * 2);
+      playoutSides = Arrays.copyOf(playoutSides, playoutLength * 2);
+    }
+    playoutKeys[playoutLength] = moveKey(move);
+    playoutSides[playoutLength] = side;
+    playoutLength++;
+  }
+
+  // Packed from-to squares, 0-4095
+  private static int moveKey(CheckersMove move) {
+    int last = move.getSize() - 1;
+    int from = move.getRow(0) * 8 + move.getCol(0);
+    int to = move.getRow(last) * 8 + move.getCol(last);
+    return (from << 6) | to;
+  }
+
+  /**
+   * RAVE update: walking up from the leaf, every child of a path node whose
+   * move its side played later in this iteration, in the tree or the
+   * playout, gets the iteration's reward in its AMAF statistics.
+   *
+   * @param reward the result for the player who moved into the leaf
+   */
+  private void updateAmaf(MCNode<CheckersData, CheckersMove> leaf, double reward) {
+    for (int i = 0; i < playoutLength; i++) {
+      markPlayed(playoutSides[i], playoutKeys[i]);
+    }
+    for (MCNode<CheckersData, CheckersMove> node = leaf; node != null; node = node.getParent()) {
+      if (!node.getChildren().isEmpty()) {
+        boolean[] seen = amafSeen[colorIndex(sideToMove(node))];
+        // Children are moves by the other player
+        for (MCNode<CheckersData, CheckersMove> child : node.getChildren()) {
+          if (seen[moveKey(child.getMove())]) {
+            child.updateAmaf(1.0 - reward);
+          }
+        }
+      }
+      if (node.getParent() != null) {
+        markPlayed(moverOf(node.getParent().getState(), node.getMove()), moveKey(node.getMove()));
+      }
+      reward = 1.0 - reward;
+    }
+    for (int i = 0; i < amafMarkedCount; i++) {
+      int marked = amafMarked[i];
+      amafSeen[marked >> 12][marked & 4095] = false;
+    }
+    amafMarkedCount = 0;
+  }
+
+  private void markPlayed(int side, int key) {
+    int color = colorIndex(side);
+    if (!amafSeen[color][key]) {
+      amafSeen[color][key] = true;
+      amafMarked[amafMarkedCount++] = (color << 12) | key;
+    }
+  }
+
+  private static int colorIndex(int side) {
+    return (side == CheckersData.RED) ? 0 : 1;
+  }
+
+  private int sideToMove(MCNode<CheckersData, CheckersMove> node) {
+    if (node.getParent() == null) {
+      return player;
+    }
+    return opponent(moverOf(node.getParent().getState(), node.getMove()));
   }
 
   /**
    * Backpropagation step: Update the statistics of all nodes along the path
-   * from the current node to the root.
+   * from the current node to the root. Each node keeps rewards for the
+   * player who moved into it, so the reward flips at every level (negamax)
+   * and UCB1 picks the best move for whoever is choosing.
    *
    * @param node   The node where the simulation ended.
-   * @param reward The result of the simulation (e.g., 1 for win, 0 for loss, 0.5 for draw).
+   * @param reward The result for the player who moved into the node.
    */
   private void backPropagation(
     MCNode<CheckersData, CheckersMove> node,
@@ -186,7 +695,8 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
       // Update the total reward for the current node
       node.updateReward(reward);
 
-      // Move to the parent node
+      // Move to the parent node, seen from the other player
+      reward = 1.0 - reward;
       node = node.getParent();
     }
   }
@@ -204,12 +714,24 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
       );
     }
 
+    // A proven win is played at once; proven losses only if nothing else is left
+    boolean avoidLosses = false;
+    for (MCNode<CheckersData, CheckersMove> child : root.getChildren()) {
+      if (child.getProven() == MCNode.PROVEN_WIN) {
+        return child.getMove();
+      }
+      avoidLosses |= child.getProven() != MCNode.PROVEN_LOSS;
+    }
+
     MCNode<CheckersData, CheckersMove> bestChild = null;
     int maxVisits = -1;
 
     // First, check for the best capture move (if any)
     for (MCNode<CheckersData, CheckersMove> child : root.getChildren()) {
       CheckersMove move = child.getMove();
+      if (avoidLosses && child.getProven() == MCNode.PROVEN_LOSS) {
+        continue;
+      }
       if (move.isCapture() && child.getVisits() > maxVisits) {
         bestChild = child;
         maxVisits = child.getVisits();
@@ -219,6 +741,9 @@ public class MonteCarloTreeSearch extends AdversarialSearch {
     // If no capture move is found, fall back to the best non-capture move
     if (bestChild == null) {
       for (MCNode<CheckersData, CheckersMove> child : root.getChildren()) {
+        if (avoidLosses && child.getProven() == MCNode.PROVEN_LOSS) {
+          continue;
+        }
         if (child.getVisits() > maxVisits) {
           bestChild = child;
           maxVisits = child.getVisits();
@@ -0,0 +1,112 @@
+package main.java.com.checkers.ai;
+
+import java.util.List;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+
+/**
+ * Cheap hand-written move scores for ordering the rollout search's
+ * expansions: captures first, then promotions, then quiet moves that land on
+ * a safe or central square. Only the moving piece's neighbourhood is looked
+ * at, so scoring a move costs a few array reads.
+ */
+final class MovePriors {
+
+  private static final int CAPTURE = 100; // per piece jumped
+  private static final int PROMOTION = 60;
+  private static final int EXPOSED = 40; // landing where it can be jumped
+  private static final int CENTER = 10;
+  private static final int BACK_ROW = 8; // a man leaving its home row
+
+  private MovePriors() {}
+
+  static int score(CheckersData state, CheckersMove move) {
+    int last = move.getSize() - 1;
+    int fromRow = move.getRow(0);
+    int fromCol = move.getCol(0);
+    int toRow = move.getRow(last);
+    int toCol = move.getCol(last);
+    int piece = state.getPiece(fromRow, fromCol);
+    boolean red = piece == CheckersData.RED || piece == CheckersData.RED_KING;
+    boolean king = piece == CheckersData.RED_KING || piece == CheckersData.BLACK_KING;
+
+    int score = 0;
+    if (move.isCapture()) {
+      score += CAPTURE * last;
+    }
+    if (!king && toRow == (red ? 0 : 7)) {
+      score += PROMOTION;
+    }
+    if (!king && fromRow == (red ? 7 : 0)) {
+      score -= BACK_ROW;
+    }
+    if (toRow >= 2 && toRow <= 5 && toCol >= 2 && toCol <= 5) {
+      score += CENTER;
+    }
+    if (exposed(state, toRow, toCol, fromRow, fromCol, red)) {
+      score -= EXPOSED;
+    }
+    return score;
+  }
+
+  /**
+   * The score as a UCB1 progressive-bias term: about 1 per piece captured.
+   */
+  static float bias(CheckersData state, CheckersMove move) {
+    return score(state, move) / (float) CAPTURE;
+  }
+
+  /**
+   * Sorts moves by ascending score, so the best is last and can be taken
+   * with an O(1) remove from the end.
+   */
+  static void order(CheckersData state, List<CheckersMove> moves) {
+    int n = moves.size();
+    int[] scores = new int[n];
+    for (int i = 0; i < n; i++) {
+      scores[i] = score(state, moves.get(i));
+    }
+    // Insertion sort; a node has a handful of moves
+    for (int i = 1; i < n; i++) {
+      int key = scores[i];
+      CheckersMove move = moves.get(i);
+      int j = i - 1;
+      for (; j >= 0 && scores[j] > key; j--) {
+        scores[j + 1] = scores[j];
+        moves.set(j + 1, moves.get(j));
+      }
+      scores[j + 1] = key;
+      moves.set(j + 1, move);
+    }
+  }
+
+  // Whether an opponent could jump a piece that lands on (row, col). Pieces
+  // the move captures are not removed first, which only errs on the safe side.
+  private static boolean exposed(CheckersData state, int row, int col, int fromRow, int fromCol, boolean red) {
+    for (int dr = -1; dr <= 1; dr += 2) {
+      for (int dc = -1; dc <= 1; dc += 2) {
+        int attackerRow = row + dr;
+        int attackerCol = col + dc;
+        int landRow = row - dr;
+        int landCol = col - dc;
+        if (!onBoard(attackerRow, attackerCol) || !onBoard(landRow, landCol)) {
+          continue;
+        }
+        int attacker = state.getPiece(attackerRow, attackerCol);
+        boolean canAttack = red
+          ? attacker == CheckersData.BLACK_KING || (attacker == CheckersData.BLACK && dr < 0)
+          : attacker == CheckersData.RED_KING || (attacker == CheckersData.RED && dr > 0);
+        boolean landFree = state.getPiece(landRow, landCol) == CheckersData.EMPTY
+          || (landRow == fromRow && landCol == fromCol);
+        if (canAttack && landFree) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean onBoard(int row, int col) {
+    return row >= 0 && row < 8 && col >= 0 && col < 8;
+  }
+}
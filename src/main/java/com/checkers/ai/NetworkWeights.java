@@ -0,0 +1,172 @@
+package main.java.com.checkers.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Parameters of the evaluation network: two ReLU hidden layers over the
+ * board, a tanh value head and a policy head with one logit per
+ * (from square, first step direction). Immutable once built, so every
+ * search shares one instance; the per-search scratch space lives in
+ * {@link NeuralEvaluator}.
+ *
+ * File format (big-endian): magic "CKNN", version, then the input, hidden1,
+ * hidden2 and policy sizes as ints, then w1, b1, w2, b2, wv, bv, wp, bp as
+ * float32. Weight matrices are stored output-major: w1[h * inputs + i].
+ */
+public final class NetworkWeights {
+
+  public static final int INPUTS = 4 * 32; // own man, own king, opponent man, opponent king
+  public static final int POLICY = 4 * 32; // from square x direction
+
+  private static final int MAGIC = 0x434B4E4E;
+  private static final int FORMAT_VERSION = 1;
+
+  final int hidden1;
+  final int hidden2;
+  final float[] w1;
+  final float[] b1;
+  final float[] w2;
+  final float[] b2;
+  final float[] wv;
+  final float bv;
+  final float[] wp;
+  final float[] bp;
+
+  public NetworkWeights(
+    int hidden1,
+    int hidden2,
+    float[] w1,
+    float[] b1,
+    float[] w2,
+    float[] b2,
+    float[] wv,
+    float bv,
+    float[] wp,
+    float[] bp
+  ) {
+    if (w1.length != hidden1 * INPUTS || b1.length != hidden1 ||
+        w2.length != hidden2 * hidden1 || b2.length != hidden2 ||
+        wv.length != hidden2 || wp.length != POLICY * hidden2 || bp.length != POLICY) {
+      throw new IllegalArgumentException("Layer sizes do not match");
+    }
+    this.hidden1 = hidden1;
+    this.hidden2 = hidden2;
+    this.w1 = w1;
+    this.b1 = b1;
+    this.w2 = w2;
+    this.b2 = b2;
+    this.wv = wv;
+    this.bv = bv;
+    this.wp = wp;
+    this.bp = bp;
+  }
+
+  public int getHidden1() {
+    return hidden1;
+  }
+
+  public int getHidden2() {
+    return hidden2;
+  }
+
+  /**
+   * Hand-set weights that make the value head a material count (kings worth
+   * 1.5 men, men a little more the further they have advanced) with uniform
+   * move priors. Used until trained weights exist.
+   */
+  public static NetworkWeights material(int hidden1, int hidden2) {
+    if (hidden1 < 4 || hidden2 < 2) {
+      throw new IllegalArgumentException("Need at least 4 and 2 hidden units");
+    }
+    float[] w1 = new float[hidden1 * INPUTS];
+    for (int square = 0; square < 32; square++) {
+      int row = square / 4;
+      w1[0 * INPUTS + square] = 1f + 0.03f * (7 - row); // own men move up
+      w1[1 * INPUTS + 32 + square] = 1.5f;
+      w1[2 * INPUTS + 64 + square] = 1f + 0.03f * row;
+      w1[3 * INPUTS + 96 + square] = 1.5f;
+    }
+    float[] w2 = new float[hidden2 * hidden1];
+    for (int h = 0; h < 4; h++) {
+      float sign = (h < 2) ? 1f : -1f;
+      w2[0 * hidden1 + h] = sign; // own material ahead
+      w2[1 * hidden1 + h] = -sign; // opponent material ahead
+    }
+    float[] wv = new float[hidden2];
+    wv[0] = 0.35f;
+    wv[1] = -0.35f;
+    return new NetworkWeights(
+      hidden1, hidden2,
+      w1, new float[hidden1],
+      w2, new float[hidden2],
+      wv, 0f,
+      new float[POLICY * hidden2], new float[POLICY]
+    );
+  }
+
+  public static NetworkWeights load(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " is not a network weights file");
+      }
+      if (in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Unsupported weights version in " + file);
+      }
+      int inputs = in.readInt();
+      int hidden1 = in.readInt();
+      int hidden2 = in.readInt();
+      int policy = in.readInt();
+      if (inputs != INPUTS || policy != POLICY || hidden1 <= 0 || hidden2 <= 0 || hidden1 > 4096 || hidden2 > 4096) {
+        throw new IOException("Unexpected layer sizes in " + file);
+      }
+      float[] w1 = read(in, hidden1 * INPUTS);
+      float[] b1 = read(in, hidden1);
+      float[] w2 = read(in, hidden2 * hidden1);
+      float[] b2 = read(in, hidden2);
+      float[] wv = read(in, hidden2);
+      float bv = in.readFloat();
+      float[] wp = read(in, POLICY * hidden2);
+      float[] bp = read(in, POLICY);
+      return new NetworkWeights(hidden1, hidden2, w1, b1, w2, b2, wv, bv, wp, bp);
+    }
+  }
+
+  private static float[] read(DataInputStream in, int count) throws IOException {
+    float[] values = new float[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = in.readFloat();
+    }
+    return values;
+  }
+
+  public void save(Path file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(INPUTS);
+      out.writeInt(hidden1);
+      out.writeInt(hidden2);
+      out.writeInt(POLICY);
+      write(out, w1);
+      write(out, b1);
+      write(out, w2);
+      write(out, b2);
+      write(out, wv);
+      out.writeFloat(bv);
+      write(out, wp);
+      write(out, bp);
+    }
+  }
+
+  private static void write(DataOutputStream out, float[] values) throws IOException {
+    for (float value : values) {
+      out.writeFloat(value);
+    }
+  }
+}
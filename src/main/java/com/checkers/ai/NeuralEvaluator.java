@@ -0,0 +1,213 @@
+package main.java.com.checkers.ai;
+
+import java.util.List;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+
+/**
+ * Runs {@link NetworkWeights} on a position. All scratch arrays are
+ * allocated once here, so an evaluation allocates nothing; an instance is
+ * therefore not thread-safe and belongs to one search.
+ *
+ * The board is always seen from the side to move, which moves up the board:
+ * for BLACK it is turned 180 degrees (square s becomes 31 - s), so one set of
+ * weights plays both colors.
+ *
+ * Several positions can be queued with {@link #add} and run together with
+ * {@link #run}: each layer then walks its weights once for the whole batch
+ * instead of once per position.
+ */
+public final class NeuralEvaluator {
+
+  private final NetworkWeights weights;
+  private final int capacity;
+  private final int[] active; // indices of the non-zero inputs, 32 per slot
+  private final int[] activeCount;
+  private final int[] sides;
+  private final float[] hidden1; // slot-major, hidden1 per slot
+  private final float[] hidden2;
+  private final float[] values;
+  private int count;
+
+  public NeuralEvaluator(NetworkWeights weights) {
+    this(weights, 1);
+  }
+
+  /**
+   * @param capacity positions that can be queued for one {@link #run}
+   */
+  public NeuralEvaluator(NetworkWeights weights, int capacity) {
+    this.weights = weights;
+    this.capacity = capacity;
+    this.active = new int[capacity * 32];
+    this.activeCount = new int[capacity];
+    this.sides = new int[capacity];
+    this.hidden1 = new float[capacity * weights.hidden1];
+    this.hidden2 = new float[capacity * weights.hidden2];
+    this.values = new float[capacity];
+  }
+
+  /**
+   * Evaluates the position for the side to move and keeps the hidden
+   * activations for the policy queries that follow.
+   *
+   * @return the value head, from -1 (side to move loses) to 1 (it wins)
+   */
+  public float evaluate(CheckersData board, int side) {
+    clear();
+    add(board, side);
+    run();
+    return values[0];
+  }
+
+  public void clear() {
+    count = 0;
+  }
+
+  /**
+   * Queues a position for the next {@link #run}.
+   *
+   * @return its slot, for {@link #value} and {@link #priors(int, List, float[])}
+   */
+  public int add(CheckersData board, int side) {
+    if (count == capacity) {
+      throw new IllegalStateException("Evaluation batch is full (" + capacity + ")");
+    }
+    int slot = count++;
+    sides[slot] = side;
+    encode(board, slot);
+    return slot;
+  }
+
+  /**
+   * Runs every queued position through the network, layer by layer.
+   */
+  public void run() {
+    NetworkWeights w = weights;
+    int n = count;
+    for (int h = 0; h < w.hidden1; h++) {
+      int base = h * NetworkWeights.INPUTS;
+      for (int b = 0; b < n; b++) {
+        float sum = w.b1[h];
+        int from = b * 32;
+        for (int a = 0; a < activeCount[b]; a++) {
+          sum += w.w1[base + active[from + a]];
+        }
+        hidden1[b * w.hidden1 + h] = Math.max(0f, sum);
+      }
+    }
+    for (int h = 0; h < w.hidden2; h++) {
+      int base = h * w.hidden1;
+      for (int b = 0; b < n; b++) {
+        float sum = w.b2[h];
+        int in = b * w.hidden1;
+        for (int i = 0; i < w.hidden1; i++) {
+          sum += w.w2[base + i] * hidden1[in + i];
+        }
+        hidden2[b * w.hidden2 + h] = Math.max(0f, sum);
+      }
+    }
+    for (int b = 0; b < n; b++) {
+      float value = w.bv;
+      int in = b * w.hidden2;
+      for (int h = 0; h < w.hidden2; h++) {
+        value += w.wv[h] * hidden2[in + h];
+      }
+      values[b] = (float) Math.tanh(value);
+    }
+  }
+
+  /**
+   * @return the value head of a slot after {@link #run}
+   */
+  public float value(int slot) {
+    return values[slot];
+  }
+
+  // One-hot planes: own man, own king, opponent man, opponent king
+  private void encode(CheckersData board, int slot) {
+    int side = sides[slot];
+    int ownKing = (side == CheckersData.RED) ? CheckersData.RED_KING : CheckersData.BLACK_KING;
+    int from = slot * 32;
+    int n = 0;
+    for (int row = 0; row < 8; row++) {
+      for (int col = row % 2; col < 8; col += 2) {
+        int piece = board.getPiece(row, col);
+        if (piece == CheckersData.EMPTY) {
+          continue;
+        }
+        int plane = (piece == side) ? 0 : (piece == ownKing) ? 1 : (piece == CheckersData.RED || piece == CheckersData.BLACK) ? 2 : 3;
+        active[from + n++] = plane * 32 + square(row, col, side);
+      }
+    }
+    activeCount[slot] = n;
+  }
+
+  // Square index 0-31 as seen by the side to move
+  private static int square(int row, int col, int side) {
+    int square = row * 4 + col / 2;
+    return (side == CheckersData.BLACK) ? 31 - square : square;
+  }
+
+  /**
+   * Policy output for a move given by its first step: the from square as
+   * seen by the mover, times 4, plus the direction (0 up-left, 1 up-right,
+   * 2 down-left, 3 down-right).
+   */
+  public static int policyIndex(int fromRow, int fromCol, int nextRow, int nextCol, int side) {
+    int up = Integer.signum(nextRow - fromRow);
+    int right = Integer.signum(nextCol - fromCol);
+    if (side == CheckersData.BLACK) {
+      up = -up;
+      right = -right;
+    }
+    return square(fromRow, fromCol, side) * 4 + ((up < 0) ? 0 : 2) + ((right < 0) ? 0 : 1);
+  }
+
+  /**
+   * Policy logit of a move in the position last evaluated.
+   */
+  public float policyLogit(CheckersMove move) {
+    return policyLogit(0, move);
+  }
+
+  private float policyLogit(int slot, CheckersMove move) {
+    int index = policyIndex(move.getRow(0), move.getCol(0), move.getRow(1), move.getCol(1), sides[slot]);
+
+    NetworkWeights w = weights;
+    float sum = w.bp[index];
+    int base = index * w.hidden2;
+    int in = slot * w.hidden2;
+    for (int h = 0; h < w.hidden2; h++) {
+      sum += w.wp[base + h] * hidden2[in + h];
+    }
+    return sum;
+  }
+
+  /**
+   * Softmax of the policy over the given moves, written to out[0..n).
+   */
+  public void priors(List<CheckersMove> moves, float[] out) {
+    priors(0, moves, out);
+  }
+
+  /**
+   * Softmax of a slot's policy over the given moves after {@link #run}.
+   */
+  public void priors(int slot, List<CheckersMove> moves, float[] out) {
+    int n = moves.size();
+    float max = Float.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      out[i] = policyLogit(slot, moves.get(i));
+      max = Math.max(max, out[i]);
+    }
+    float total = 0f;
+    for (int i = 0; i < n; i++) {
+      out[i] = (float) Math.exp(out[i] - max);
+      total += out[i];
+    }
+    for (int i = 0; i < n; i++) {
+      out[i] /= total;
+    }
+  }
+}
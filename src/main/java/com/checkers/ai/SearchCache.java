@@ -0,0 +1,263 @@
+package main.java.com.checkers.ai;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.util.ServerConfig;
+
+/**
+ * Process-wide cache of finished searches, shared by every session.
+ *
+ * Keyed by the exact position, the side to move and the difficulty, it keeps
+ * the move the search chose and the root visit counts. Entries are held in
+ * LRU order under a byte budget. Once the budget is full a new entry is only
+ * admitted if a frequency sketch (TinyLFU) has seen its position more often
+ * than the LRU victim's, so a stream of one-off midgame positions cannot push
+ * out the openings everybody plays.
+ *
+ * A hit returns the cached move, or with probability {@code randomize} a root
+ * move drawn in proportion to its visits, so repeated games do not become
+ * fully deterministic.
+ */
+public final class SearchCache {
+
+  public record Key(long low, long high, int side, int difficulty) {
+
+    public static Key of(CheckersData board, int side, int difficulty) {
+      long[] squares = board.packedSquares();
+      return new Key(squares[0], squares[1], side, difficulty);
+    }
+  }
+
+  /**
+   * @param searchNanos CPU time the search took, i.e. what a hit saves
+   */
+  public record Entry(int[][] move, List<SearchSnapshot.RootMove> rootMoves, long searchNanos) {}
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static volatile SearchCache shared = new SearchCache(true, 32L << 20, 0.1);
+
+  private final long maxBytes;
+  private final double randomize;
+  private volatile boolean enabled;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+  private final FrequencySketch sketch;
+  private long bytes;
+
+  private long hits;
+  private long misses;
+  private long randomized;
+  private long admitted;
+  private long rejected;
+  private long evicted;
+  private long savedNanos;
+
+  public SearchCache(boolean enabled, long maxBytes, double randomize) {
+    this.enabled = enabled;
+    this.maxBytes = maxBytes;
+    this.randomize = randomize;
+    // About one sketch counter per entry the budget can hold, times four
+    this.sketch = new FrequencySketch((int) Math.min(1 << 22, Math.max(1024, maxBytes / 256)));
+  }
+
+  public static void configure(ServerConfig config) {
+    shared = new SearchCache(
+      config.getBoolean("SEARCH_CACHE_ENABLED", true),
+      config.getLong("SEARCH_CACHE_MAX_BYTES", 32L << 20),
+      config.getDouble("SEARCH_CACHE_RANDOMIZE", 0.1)
+    );
+  }
+
+  public static SearchCache shared() {
+    return shared;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Counts an access to the position and returns its entry, if cached.
+   */
+  public synchronized Entry lookup(Key key) {
+    sketch.increment(key.hashCode());
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    savedNanos += entry.searchNanos();
+    return entry;
+  }
+
+  /**
+   * Adds a finished search, subject to admission once the budget is full.
+   */
+  public synchronized void store(Key key, Entry entry) {
+    int size = estimateBytes(entry);
+    Entry previous = entries.remove(key);
+    if (previous != null) {
+      bytes -= estimateBytes(previous);
+    }
+    int frequency = sketch.frequency(key.hashCode());
+    // Pick the victims before evicting any, so a rejected entry costs nothing
+    long freed = 0;
+    int victims = 0;
+    Iterator<Map.Entry<Key, Entry>> lru = entries.entrySet().iterator();
+    while (bytes - freed + size > maxBytes && lru.hasNext()) {
+      Map.Entry<Key, Entry> victim = lru.next();
+      if (previous == null && sketch.frequency(victim.getKey().hashCode()) >= frequency) {
+        rejected++;
+        return;
+      }
+      freed += estimateBytes(victim.getValue());
+      victims++;
+    }
+    if (bytes - freed + size > maxBytes) {
+      // Larger than the whole budget
+      rejected++;
+      return;
+    }
+    lru = entries.entrySet().iterator();
+    for (int i = 0; i < victims; i++) {
+      bytes -= estimateBytes(lru.next().getValue());
+      lru.remove();
+      evicted++;
+    }
+    entries.put(key, entry);
+    bytes += size;
+    admitted++;
+  }
+
+  /**
+   * @return the move to play for a hit: usually the searched move, sometimes
+   *         another root move weighted by its visits
+   */
+  public int[][] choose(Entry entry) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (randomize <= 0 || entry.rootMoves().size() < 2 || random.nextDouble() >= randomize) {
+      return entry.move();
+    }
+    long total = 0;
+    for (SearchSnapshot.RootMove move : entry.rootMoves()) {
+      total += move.visits();
+    }
+    if (total <= 0) {
+      return entry.move();
+    }
+    long pick = random.nextLong(total);
+    for (SearchSnapshot.RootMove move : entry.rootMoves()) {
+      pick -= move.visits();
+      if (pick < 0) {
+        synchronized (this) {
+          randomized++;
+        }
+        return move.path();
+      }
+    }
+    return entry.move();
+  }
+
+  // Rough heap footprint: map node and key, entry, and the move paths
+  private static int estimateBytes(Entry entry) {
+    int size = 64 + 40 + 32 + pathBytes(entry.move());
+    for (SearchSnapshot.RootMove move : entry.rootMoves()) {
+      size += 40 + pathBytes(move.path());
+    }
+    return size;
+  }
+
+  private static int pathBytes(int[][] path) {
+    return 16 + path.length * (4 + 24);
+  }
+
+  /**
+   * CPU time of the calling thread, or wall time where the JVM cannot
+   * measure it.
+   */
+  public static long threadCpuNanos() {
+    return THREADS.isCurrentThreadCpuTimeSupported()
+      ? THREADS.getCurrentThreadCpuTime()
+      : System.nanoTime();
+  }
+
+  public synchronized Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    long lookups = hits + misses;
+    stats.put("enabled", enabled);
+    stats.put("entries", entries.size());
+    stats.put("bytes", bytes);
+    stats.put("maxBytes", maxBytes);
+    stats.put("hits", hits);
+    stats.put("misses", misses);
+    stats.put("hitRatio", (lookups == 0) ? 0.0 : (double) hits / lookups);
+    stats.put("randomizedHits", randomized);
+    stats.put("admitted", admitted);
+    stats.put("rejectedByAdmission", rejected);
+    stats.put("evicted", evicted);
+    stats.put("savedCpuMs", savedNanos / 1_000_000);
+    return stats;
+  }
+
+  /**
+   * Count-min sketch of 4 bit counters, 4 rows, halved every 10 x width
+   * increments so old popularity fades.
+   */
+  private static final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+      0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+    };
+
+    private final byte[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int width) {
+      int size = Integer.highestOneBit(Math.max(16, width));
+      this.counters = new byte[DEPTH * size];
+      this.mask = size - 1;
+      this.sampleSize = 10 * size;
+    }
+
+    private int index(int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+      return row * (mask + 1) + (int) ((h ^ (h >>> 32)) & mask);
+    }
+
+    void increment(int hash) {
+      for (int row = 0; row < DEPTH; row++) {
+        int i = index(hash, row);
+        if (counters[i] < 15) {
+          counters[i]++;
+        }
+      }
+      if (++additions >= sampleSize) {
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] >>= 1;
+        }
+        additions /= 2;
+      }
+    }
+
+    int frequency(int hash) {
+      int min = 15;
+      for (int row = 0; row < DEPTH; row++) {
+        min = Math.min(min, counters[index(hash, row)]);
+      }
+      return min;
+    }
+  }
+}
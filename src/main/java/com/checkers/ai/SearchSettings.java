@@ -0,0 +1,121 @@
+package main.java.com.checkers.ai;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import main.java.com.checkers.util.ServerConfig;
+
+/**
+ * Process-wide tunables for the AI searches, loaded once from the .env file
+ * at startup. Searches read these when they are created, so changes only
+ * affect games started afterwards.
+ */
+public final class SearchSettings {
+
+  // Publish a progress snapshot every N iterations (0 disables snapshots)
+  private static volatile int snapshotEvery = 25;
+  // Network for PUCT searches; null keeps the random-rollout search
+  private static volatile NetworkWeights networkWeights;
+  private static volatile double puctConstant = 1.5;
+  private static volatile double networkIterationScale = 4.0;
+  // Rollout search: order expansions by MovePriors, and only let a node
+  // have widenBase + visits^widenExponent children (widenBase 0 = no limit)
+  private static volatile boolean moveOrdering = true;
+  private static volatile int widenBase = 2;
+  private static volatile double widenExponent = 0.5;
+  // RAVE weight k per difficulty (EASY, MEDIUM, HARD); 0 = plain UCB1
+  private static volatile double[] raveK = { 0, 0, 0 };
+  // Shared leaf batching for network searches; null evaluates in each search
+  private static volatile BatchEvaluator batchEvaluator;
+
+  private SearchSettings() {}
+
+  public static void configure(ServerConfig config) {
+    snapshotEvery = Math.max(0, config.getInt("AI_SNAPSHOT_EVERY", snapshotEvery));
+    puctConstant = config.getDouble("AI_PUCT_C", puctConstant);
+    networkIterationScale = config.getDouble("AI_NETWORK_ITERATION_SCALE", networkIterationScale);
+    moveOrdering = config.getBoolean("AI_MOVE_ORDERING", moveOrdering);
+    widenBase = Math.max(0, config.getInt("AI_WIDEN_BASE", widenBase));
+    widenExponent = config.getDouble("AI_WIDEN_EXPONENT", widenExponent);
+    raveK = new double[] {
+      Math.max(0, config.getDouble("AI_RAVE_K_EASY", raveK[0])),
+      Math.max(0, config.getDouble("AI_RAVE_K_MEDIUM", raveK[1])),
+      Math.max(0, config.getDouble("AI_RAVE_K_HARD", raveK[2])),
+    };
+    networkWeights = null;
+    if (config.getString("AI_EVALUATOR", "rollout").equalsIgnoreCase("network")) {
+      networkWeights = loadWeights(config.getString("AI_WEIGHTS", "weights.bin"));
+    }
+    batchEvaluator = null;
+    if (networkWeights != null && config.getBoolean("AI_BATCH_EVAL", false)) {
+      batchEvaluator = new BatchEvaluator(
+        networkWeights,
+        config.getInt("AI_BATCH_MAX", 16),
+        config.getInt("AI_BATCH_MAX_WAIT_US", 200)
+      );
+    }
+  }
+
+  private static NetworkWeights loadWeights(String file) {
+    Path path = Path.of(file);
+    if (!Files.exists(path)) {
+      System.out.println("[Warning] " + file + " not found, using the material evaluation network");
+      return NetworkWeights.material(64, 32);
+    }
+    try {
+      NetworkWeights weights = NetworkWeights.load(path);
+      System.out.println(
+        "Loaded network " + file + " (" + weights.getHidden1() + "x" + weights.getHidden2() + ")"
+      );
+      return weights;
+    } catch (IOException e) {
+      System.out.println("[Error] Could not load " + file + ", using rollouts: " + e.getMessage());
+      return null;
+    }
+  }
+
+  public static int getSnapshotEvery() {
+    return snapshotEvery;
+  }
+
+  public static NetworkWeights getNetworkWeights() {
+    return networkWeights;
+  }
+
+  public static boolean isMoveOrdering() {
+    return moveOrdering;
+  }
+
+  public static int getWidenBase() {
+    return widenBase;
+  }
+
+  public static double getWidenExponent() {
+    return widenExponent;
+  }
+
+  /**
+   * RAVE weight for a difficulty (1-3): about the number of visits at which
+   * a child's own mean and its AMAF mean count equally.
+   */
+  public static double getRaveK(int difficulty) {
+    double[] k = raveK;
+    return (difficulty >= 1 && difficulty <= k.length) ? k[difficulty - 1] : 0;
+  }
+
+  public static BatchEvaluator getBatchEvaluator() {
+    return batchEvaluator;
+  }
+
+  public static double getPuctConstant() {
+    return puctConstant;
+  }
+
+  /**
+   * Network iterations per rollout iteration at the same difficulty; an
+   * iteration without a rollout is much cheaper.
+   */
+  public static double getNetworkIterationScale() {
+    return networkIterationScale;
+  }
+}
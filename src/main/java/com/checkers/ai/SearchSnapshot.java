@@ -0,0 +1,88 @@
+package main.java.com.checkers.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable summary of a running search, published by the search thread
+ * every few iterations so observers never touch the live tree.
+ */
+public final class SearchSnapshot {
+
+  /**
+   * Visit statistics for one root move.
+   */
+  public record RootMove(int[][] path, int visits, double share) {}
+
+  private final int iterations;
+  private final int maxIterations;
+  private final long elapsedMs;
+  private final int[][] bestMove;
+  private final List<RootMove> rootMoves;
+  private final boolean done;
+
+  public SearchSnapshot(
+    int iterations,
+    int maxIterations,
+    long elapsedMs,
+    int[][] bestMove,
+    List<RootMove> rootMoves,
+    boolean done
+  ) {
+    this.iterations = iterations;
+    this.maxIterations = maxIterations;
+    this.elapsedMs = elapsedMs;
+    this.bestMove = bestMove;
+    this.rootMoves = Collections.unmodifiableList(new ArrayList<>(rootMoves));
+    this.done = done;
+  }
+
+  public int getIterations() {
+    return iterations;
+  }
+
+  public int getMaxIterations() {
+    return maxIterations;
+  }
+
+  public long getElapsedMs() {
+    return elapsedMs;
+  }
+
+  /**
+   * @return the current best move as a list of [row, col] squares, or null
+   */
+  public int[][] getBestMove() {
+    return bestMove;
+  }
+
+  public List<RootMove> getRootMoves() {
+    return rootMoves;
+  }
+
+  public boolean isDone() {
+    return done;
+  }
+
+  public Map<String, Object> toData() {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("iterations", iterations);
+    data.put("maxIterations", maxIterations);
+    data.put("elapsedMs", elapsedMs);
+    data.put("bestMove", bestMove);
+    List<Object> shares = new ArrayList<>();
+    for (RootMove move : rootMoves) {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("move", move.path());
+      entry.put("visits", move.visits());
+      entry.put("share", Math.round(move.share() * 1000) / 1000.0);
+      shares.add(entry);
+    }
+    data.put("rootVisits", shares);
+    data.put("done", done);
+    return data;
+  }
+}
@@ -0,0 +1,163 @@
+package main.java.com.checkers.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import main.java.com.checkers.util.GameResponse;
+
+/**
+ * Ticket for one AI move computed in the background.
+ *
+ * The future completes once the move has been applied to the session;
+ * at that point the job also holds a copy of the resulting board and the
+ * game status, so pollers never need to touch the live game.
+ */
+public class AIJob {
+
+  public enum Status {
+    QUEUED,
+    DONE,
+    FAILED,
+    REJECTED,
+  }
+
+  private final String jobId;
+  private final String connectionId;
+  private final long submittedAt;
+  private final CompletableFuture<AIJob> future = new CompletableFuture<>();
+
+  private volatile Status status = Status.QUEUED;
+  private volatile GameResponse<Void> moveResponse;
+  private volatile int[][] board;
+  private volatile int[][] move;
+  private volatile int gameStatus = -1;
+  private volatile long retryAfterSeconds;
+  private volatile long completedAt;
+  private volatile double budgetScale = 1.0;
+
+  AIJob(String jobId, String connectionId) {
+    this.jobId = jobId;
+    this.connectionId = connectionId;
+    this.submittedAt = System.currentTimeMillis();
+  }
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  public String getConnectionId() {
+    return connectionId;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public boolean isDone() {
+    return status != Status.QUEUED;
+  }
+
+  public GameResponse<Void> getMoveResponse() {
+    return moveResponse;
+  }
+
+  public int[][] getMove() {
+    return move;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+  public long getCompletedAt() {
+    return completedAt;
+  }
+
+  /**
+   * @return time from submission to completion, or so far if still pending
+   */
+  public long getElapsedMillis() {
+    return (isDone() ? completedAt : System.currentTimeMillis()) - submittedAt;
+  }
+
+  /**
+   * @return fraction of the difficulty's search budget the search was given
+   */
+  public double getBudgetScale() {
+    return budgetScale;
+  }
+
+  void setBudgetScale(double budgetScale) {
+    this.budgetScale = budgetScale;
+  }
+
+  /**
+   * Completes with this job once it is no longer queued or running.
+   */
+  public CompletableFuture<AIJob> getFuture() {
+    return future;
+  }
+
+  void complete(
+    GameResponse<Void> moveResponse,
+    int[][] move,
+    int[][] board,
+    int gameStatus
+  ) {
+    this.moveResponse = moveResponse;
+    this.move = move;
+    this.board = copyBoard(board);
+    this.gameStatus = gameStatus;
+    finish(Status.DONE);
+  }
+
+  void fail(String message) {
+    this.moveResponse = new GameResponse<>(false, "[Error] " + message);
+    finish(Status.FAILED);
+  }
+
+  void reject(AIScheduler.RejectedException rejected) {
+    this.moveResponse = new GameResponse<>(false, "[Busy] " + rejected.getMessage());
+    this.retryAfterSeconds = rejected.getRetryAfterSeconds();
+    finish(Status.REJECTED);
+  }
+
+  private void finish(Status status) {
+    this.completedAt = System.currentTimeMillis();
+    this.status = status;
+    future.complete(this);
+  }
+
+  /**
+   * Poll payload: always the job id and status, plus the chosen move, board
+   * and game status once the move has been applied.
+   */
+  public Map<String, Object> toData() {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("jobId", jobId);
+    data.put("status", status.name().toLowerCase());
+    data.put("elapsedMs", getElapsedMillis());
+    if (status == Status.DONE) {
+      data.put("move", move);
+      data.put("board", board);
+      data.put("gameStatus", gameStatus);
+      data.put("budgetScale", roundedBudgetScale());
+    }
+    return data;
+  }
+
+  double roundedBudgetScale() {
+    return Math.round(budgetScale * 1000) / 1000.0;
+  }
+
+  private static int[][] copyBoard(int[][] board) {
+    if (board == null) {
+      return null;
+    }
+    int[][] copy = new int[board.length][];
+    for (int i = 0; i < board.length; i++) {
+      copy[i] = board[i].clone();
+    }
+    return copy;
+  }
+}
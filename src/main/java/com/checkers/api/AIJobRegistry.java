@@ -0,0 +1,186 @@
+package main.java.com.checkers.api;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.ai.SearchSnapshot;
+import main.java.com.checkers.util.GameResponse;
+
+/**
+ * Issues job tickets for background AI moves and keeps finished jobs around
+ * long enough for clients to collect them.
+ *
+ * A session has at most one pending job; submitting again while one is
+ * queued or running returns the existing ticket instead of searching twice.
+ * The CPU time of every search is charged to its session, and a session
+ * using more than its fair share gets a scaled-down search budget. The
+ * load controller sees the latency of every finished move and may scale the
+ * budget down further.
+ */
+public class AIJobRegistry {
+
+  private final AIScheduler scheduler;
+  private final CpuAccounting accounting;
+  private final LoadController loadController;
+  private final long retentionMillis;
+  private final Map<String, AIJob> jobs = new ConcurrentHashMap<>();
+  private final Map<String, AIJob> pendingBySession = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService reaper;
+
+  public AIJobRegistry(AIScheduler scheduler, long retentionMillis) {
+    this(scheduler, retentionMillis, null, null);
+  }
+
+  /**
+   * @param accounting     per-session CPU accounting, or null for no
+   *                       fair-share throttling
+   * @param loadController latency controller, or null to always search
+   *                       with the full budget
+   */
+  public AIJobRegistry(
+    AIScheduler scheduler,
+    long retentionMillis,
+    CpuAccounting accounting,
+    LoadController loadController
+  ) {
+    this.scheduler = scheduler;
+    this.accounting = accounting;
+    this.loadController = loadController;
+    this.retentionMillis = retentionMillis;
+    this.reaper =
+      Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ai-job-reaper");
+        t.setDaemon(true);
+        return t;
+      });
+  }
+
+  /**
+   * Queues an AI move for the session, or returns its pending job.
+   */
+  public AIJob submit(GameSession session) {
+    String connectionId = session.getConnectionId();
+    AIJob job = new AIJob(newJobId(), connectionId);
+
+    while (true) {
+      AIJob existing = pendingBySession.putIfAbsent(connectionId, job);
+      if (existing == null) {
+        break;
+      }
+      if (!existing.isDone()) {
+        return existing;
+      }
+      pendingBySession.remove(connectionId, existing);
+    }
+    jobs.put(job.getJobId(), job);
+
+    // The search holds the session's mailbox, so no other operation on this
+    // game can interleave with it, but it runs on the AI pool
+    session
+      .submitAsync(() -> {
+        int difficulty = session.getDifficulty();
+        return scheduler
+          .submit(difficulty, () -> {
+            if (!session.hasActiveGame()) {
+              throw new IllegalStateException("User needs to start a game");
+            }
+            GameResponse<Void> moveResponse = makeAIMove(session, job);
+            SearchSnapshot finalSnapshot = session.getSearchSnapshot();
+            job.complete(
+              moveResponse,
+              (finalSnapshot != null && finalSnapshot.isDone()) ? finalSnapshot.getBestMove() : null,
+              session.getBoard().getData(),
+              session.gameStatus().getData()
+            );
+            return job;
+          })
+          .whenComplete((result, error) -> recordLatency(difficulty, job, error));
+      })
+      .whenComplete((result, error) -> {
+        if (error != null) {
+          Throwable cause = (error instanceof CompletionException) ? error.getCause() : error;
+          if (cause instanceof AIScheduler.RejectedException rejected) {
+            job.reject(rejected);
+          } else {
+            job.fail(String.valueOf(cause.getMessage()));
+          }
+        }
+        pendingBySession.remove(connectionId, job);
+        reaper.schedule(() -> jobs.remove(job.getJobId()), retentionMillis, TimeUnit.MILLISECONDS);
+      });
+
+    return job;
+  }
+
+  // Moves and queue timeouts feed the load controller; failed games do not
+  private void recordLatency(int difficulty, AIJob job, Throwable error) {
+    if (loadController == null) {
+      return;
+    }
+    Throwable cause = (error instanceof CompletionException) ? error.getCause() : error;
+    if (cause == null || cause instanceof AIScheduler.RejectedException) {
+      loadController.record(difficulty, job.getElapsedMillis());
+    }
+  }
+
+  private GameResponse<Void> makeAIMove(GameSession session, AIJob job) {
+    double scale = (loadController != null) ? loadController.getScale(session.getDifficulty()) : 1.0;
+    if (accounting == null) {
+      job.setBudgetScale(scale);
+      return session.makeAIMove(scale);
+    }
+    String connectionId = session.getConnectionId();
+    scale *= accounting.budgetScale(connectionId);
+    job.setBudgetScale(scale);
+    long cpuStart = SearchCache.threadCpuNanos();
+    try {
+      return session.makeAIMove(scale);
+    } finally {
+      accounting.charge(connectionId, SearchCache.threadCpuNanos() - cpuStart);
+    }
+  }
+
+  /**
+   * @return the job if it exists and belongs to the given connection
+   */
+  public AIJob get(String jobId, String connectionId) {
+    AIJob job = jobs.get(jobId);
+    if (job == null || !job.getConnectionId().equals(connectionId)) {
+      return null;
+    }
+    return job;
+  }
+
+  /**
+   * Completes with the job as soon as it finishes, or after waitMillis with
+   * the job still pending. Never blocks the caller.
+   */
+  public CompletableFuture<AIJob> await(AIJob job, long waitMillis) {
+    if (job.isDone() || waitMillis <= 0) {
+      return CompletableFuture.completedFuture(job);
+    }
+    return job.getFuture().copy().completeOnTimeout(job, waitMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public int getPendingCount() {
+    return pendingBySession.size();
+  }
+
+  public int getRetainedCount() {
+    return jobs.size();
+  }
+
+  public void shutdown() {
+    reaper.shutdownNow();
+  }
+
+  private static String newJobId() {
+    return UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+  }
+}
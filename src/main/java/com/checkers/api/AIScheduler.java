@@ -0,0 +1,351 @@
+package main.java.com.checkers.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import main.java.com.checkers.util.LatencyWindow;
+
+/**
+ * Bounded compute pool for AI searches, separate from the HTTP request threads.
+ *
+ * Work is queued in one lane per difficulty (EASY, MEDIUM, HARD). Workers
+ * always prefer the cheapest lane, but HARD searches may never occupy every
+ * worker, so an EASY move is never stuck behind a wall of HARD ones. A lane
+ * head that has waited more than half of the maximum queue wait is served
+ * first regardless of lane, which keeps HARD from starving.
+ *
+ * Requests that cannot be started within the maximum queue wait (or that
+ * arrive when their lane is full) fail fast with a {@link RejectedException}
+ * carrying a Retry-After hint instead of piling up.
+ */
+public class AIScheduler {
+
+  public static final int EASY = 1;
+  public static final int MEDIUM = 2;
+  public static final int HARD = 3;
+  private static final String[] LANE_NAMES = { "easy", "medium", "hard" };
+
+  /**
+   * Thrown (as the cause of the returned future) when a search is refused.
+   */
+  public static class RejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public RejectedException(String message, long retryAfterSeconds) {
+      super(message);
+      this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+      return retryAfterSeconds;
+    }
+  }
+
+  private class Task<T> {
+
+    final int lane;
+    final Callable<T> work;
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final long enqueuedAt = System.nanoTime();
+
+    Task(int lane, Callable<T> work) {
+      this.lane = lane;
+      this.work = work;
+    }
+
+    void run() {
+      try {
+        future.complete(work.call());
+      } catch (Throwable t) {
+        future.completeExceptionally(t);
+      }
+    }
+  }
+
+  private final List<ArrayDeque<Task<?>>> lanes;
+  private final int[] running;
+  private final int workerCount;
+  private final int hardLimit;
+  private final int laneCapacity;
+  private final long maxQueueWaitNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workAvailable = lock.newCondition();
+  private final Thread[] workers;
+  private final ScheduledExecutorService expiryTimer;
+  private volatile boolean shutdown;
+
+  // Statistics
+  private final LatencyWindow[] waitTimes;
+  private final LatencyWindow serviceTimes = new LatencyWindow(256);
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong rejectedFull = new AtomicLong();
+  private final AtomicLong rejectedExpired = new AtomicLong();
+
+  public AIScheduler(int workerCount, int laneCapacity, long maxQueueWaitMillis) {
+    if (workerCount <= 0) {
+      workerCount = Runtime.getRuntime().availableProcessors();
+    }
+    // HARD may use all but one worker, so there must be at least two, even
+    // on a single core where they simply share it
+    workerCount = Math.max(2, workerCount);
+    this.workerCount = workerCount;
+    this.hardLimit = workerCount - 1;
+    this.laneCapacity = laneCapacity;
+    this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+
+    this.lanes = new ArrayList<>(LANE_NAMES.length);
+    this.running = new int[LANE_NAMES.length];
+    this.waitTimes = new LatencyWindow[LANE_NAMES.length];
+    for (int i = 0; i < LANE_NAMES.length; i++) {
+      lanes.add(new ArrayDeque<>());
+      waitTimes[i] = new LatencyWindow(256);
+    }
+
+    this.expiryTimer =
+      Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ai-queue-expiry");
+        t.setDaemon(true);
+        return t;
+      });
+
+    this.workers = new Thread[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      workers[i] = new Thread(this::workerLoop, "ai-worker-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+    System.out.println(
+      "AI scheduler started with " + workerCount + " workers, lane capacity " +
+      laneCapacity + ", max queue wait " + maxQueueWaitMillis + "ms"
+    );
+  }
+
+  /**
+   * Queues a search in the lane for the given difficulty.
+   *
+   * @return a future that completes with the search result, or exceptionally
+   *         with a {@link RejectedException} if it could not be served in time
+   */
+  public <T> CompletableFuture<T> submit(int difficulty, Callable<T> work) {
+    int lane = laneFor(difficulty);
+    Task<T> task = new Task<>(lane, work);
+    submitted.incrementAndGet();
+
+    lock.lock();
+    try {
+      if (shutdown) {
+        task.future.completeExceptionally(
+          new RejectedException("AI scheduler is shut down", retryAfterSeconds())
+        );
+        return task.future;
+      }
+      if (lanes.get(lane).size() >= laneCapacity) {
+        rejectedFull.incrementAndGet();
+        task.future.completeExceptionally(
+          new RejectedException("AI queue is full", retryAfterSeconds())
+        );
+        return task.future;
+      }
+      lanes.get(lane).addLast(task);
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+
+    expiryTimer.schedule(() -> expire(task), maxQueueWaitNanos, TimeUnit.NANOSECONDS);
+    return task.future;
+  }
+
+  private void expire(Task<?> task) {
+    long retryAfter;
+    lock.lock();
+    try {
+      if (!lanes.get(task.lane).remove(task)) {
+        return; // already started
+      }
+      retryAfter = retryAfterSeconds();
+    } finally {
+      lock.unlock();
+    }
+    rejectedExpired.incrementAndGet();
+    task.future.completeExceptionally(
+      new RejectedException("AI queue wait exceeded", retryAfter)
+    );
+  }
+
+  private void workerLoop() {
+    while (!shutdown) {
+      Task<?> task;
+      lock.lock();
+      try {
+        while ((task = nextTask()) == null) {
+          if (shutdown) {
+            return;
+          }
+          workAvailable.await();
+        }
+        running[task.lane]++;
+      } catch (InterruptedException e) {
+        return;
+      } finally {
+        lock.unlock();
+      }
+
+      long start = System.nanoTime();
+      waitTimes[task.lane].record(TimeUnit.NANOSECONDS.toMillis(start - task.enqueuedAt));
+      try {
+        task.run();
+      } finally {
+        serviceTimes.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        completed.incrementAndGet();
+        lock.lock();
+        try {
+          running[task.lane]--;
+          // A finished HARD search may unblock a queued HARD task
+          workAvailable.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Picks the next task to run. Must be called with the lock held.
+   */
+  private Task<?> nextTask() {
+    long now = System.nanoTime();
+    long agingThreshold = maxQueueWaitNanos / 2;
+
+    // Aged lane heads go first, oldest wins
+    int chosen = -1;
+    long oldest = -1;
+    for (int lane = 0; lane < lanes.size(); lane++) {
+      Task<?> head = lanes.get(lane).peekFirst();
+      if (head == null || !eligible(lane)) {
+        continue;
+      }
+      long waited = now - head.enqueuedAt;
+      if (waited > agingThreshold && waited > oldest) {
+        chosen = lane;
+        oldest = waited;
+      }
+    }
+
+    // Otherwise cheapest lane first
+    if (chosen == -1) {
+      for (int lane = 0; lane < lanes.size(); lane++) {
+        if (!lanes.get(lane).isEmpty() && eligible(lane)) {
+          chosen = lane;
+          break;
+        }
+      }
+    }
+    return (chosen == -1) ? null : lanes.get(chosen).pollFirst();
+  }
+
+  private boolean eligible(int lane) {
+    return lane != HARD - 1 || running[lane] < hardLimit;
+  }
+
+  private int laneFor(int difficulty) {
+    if (difficulty < EASY || difficulty > HARD) {
+      return HARD - 1;
+    }
+    return difficulty - 1;
+  }
+
+  /**
+   * Rough time until a worker frees up, based on recent service times.
+   * Must be called with the lock held.
+   */
+  private long retryAfterSeconds() {
+    int pending = 0;
+    for (int lane = 0; lane < lanes.size(); lane++) {
+      pending += lanes.get(lane).size() + running[lane];
+    }
+    double perTaskMs = Math.max(serviceTimes.getRecentMean(), 100.0);
+    double seconds = pending * perTaskMs / workerCount / 1000.0;
+    return Math.max(1, (long) Math.ceil(seconds));
+  }
+
+  public int getWorkerCount() {
+    return workerCount;
+  }
+
+  public int getQueueDepth() {
+    lock.lock();
+    try {
+      int depth = 0;
+      for (ArrayDeque<Task<?>> lane : lanes) {
+        depth += lane.size();
+      }
+      return depth;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("workers", workerCount);
+    stats.put("submitted", submitted.get());
+    stats.put("completed", completed.get());
+    stats.put("rejectedFull", rejectedFull.get());
+    stats.put("rejectedExpired", rejectedExpired.get());
+    stats.put("serviceMsMean", Math.round(serviceTimes.getRecentMean()));
+    stats.put("serviceMsP95", serviceTimes.percentile(95));
+
+    Map<String, Object> laneStats = new LinkedHashMap<>();
+    lock.lock();
+    try {
+      for (int lane = 0; lane < lanes.size(); lane++) {
+        Map<String, Object> l = new LinkedHashMap<>();
+        l.put("queued", lanes.get(lane).size());
+        l.put("running", running[lane]);
+        l.put("waitMsP50", waitTimes[lane].percentile(50));
+        l.put("waitMsP95", waitTimes[lane].percentile(95));
+        l.put("waitMsMax", waitTimes[lane].getMax());
+        laneStats.put(LANE_NAMES[lane], l);
+      }
+    } finally {
+      lock.unlock();
+    }
+    stats.put("lanes", laneStats);
+    return stats;
+  }
+
+  public void shutdown() {
+    lock.lock();
+    try {
+      shutdown = true;
+      for (ArrayDeque<Task<?>> lane : lanes) {
+        Task<?> task;
+        while ((task = lane.pollFirst()) != null) {
+          task.future.completeExceptionally(
+            new RejectedException("AI scheduler is shut down", 1)
+          );
+        }
+      }
+      workAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    expiryTimer.shutdownNow();
+  }
+}
@@ -0,0 +1,165 @@
+package main.java.com.checkers.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search CPU time charged to each session, decaying with a fixed half-life,
+ * and the fair-share budget scale that follows from it.
+ *
+ * A session's share is its decayed usage over the total of all sessions that
+ * used the AI recently. While the AI workers are busier than the minimum load
+ * and more than one session is competing, a session above shareFactor times
+ * its fair share has its next search scaled down in proportion, never below
+ * minScale. A lone user, or a quiet server, is never throttled.
+ */
+public class CpuAccounting {
+
+  // Sessions whose decayed usage falls below this are forgotten
+  private static final double FORGET_NANOS = 1_000_000;
+
+  private static class Usage {
+
+    double decayedNanos;
+    long lastUpdate;
+    long totalNanos;
+    long searches;
+    long throttled;
+    double lastScale = 1.0;
+  }
+
+  private final Map<String, Usage> usage = new HashMap<>();
+  private final long halfLifeNanos;
+  private final double capacityNanos;
+  private final double shareFactor;
+  private final double minScale;
+  private final double minLoad;
+
+  private double totalDecayedNanos;
+  private long totalLastUpdate = System.nanoTime();
+  private long throttled;
+
+  /**
+   * @param workers     AI worker threads, for the load estimate
+   * @param halfLifeMs  how quickly past usage is forgiven
+   * @param shareFactor multiple of the fair share a session may use freely
+   * @param minScale    smallest budget scale handed out
+   * @param minLoad     worker load (0 to 1) below which nobody is throttled
+   */
+  public CpuAccounting(int workers, long halfLifeMs, double shareFactor, double minScale, double minLoad) {
+    this.halfLifeNanos = Math.max(1, halfLifeMs) * 1_000_000;
+    // Decayed usage of one thread busy forever: the integral of the decay
+    this.capacityNanos = Math.max(1, workers) * halfLifeNanos / Math.log(2);
+    this.shareFactor = Math.max(1.0, shareFactor);
+    this.minScale = Math.min(1.0, Math.max(0.01, minScale));
+    this.minLoad = minLoad;
+  }
+
+  /**
+   * Adds the CPU time of one search to the session.
+   */
+  public synchronized void charge(String connectionId, long cpuNanos) {
+    long now = System.nanoTime();
+    Usage u = usage.computeIfAbsent(connectionId, id -> new Usage());
+    decay(u, now);
+    u.decayedNanos += cpuNanos;
+    u.totalNanos += cpuNanos;
+    u.searches++;
+    decayTotal(now);
+    totalDecayedNanos += cpuNanos;
+  }
+
+  /**
+   * @return the factor (minScale to 1) to apply to the session's next
+   *         search budget
+   */
+  public synchronized double budgetScale(String connectionId) {
+    long now = System.nanoTime();
+    decayTotal(now);
+    Usage u = usage.get(connectionId);
+    if (u == null) {
+      return 1.0;
+    }
+    decay(u, now);
+
+    int competing = prune(now);
+    double scale = 1.0;
+    if (competing > 1 && totalDecayedNanos / capacityNanos >= minLoad) {
+      double share = u.decayedNanos / totalDecayedNanos;
+      double allowed = shareFactor / competing;
+      if (share > allowed) {
+        scale = Math.max(minScale, allowed / share);
+        u.throttled++;
+        throttled++;
+      }
+    }
+    u.lastScale = scale;
+    return scale;
+  }
+
+  // Decays every session and drops the forgotten ones; returns how many are left
+  private int prune(long now) {
+    Iterator<Usage> it = usage.values().iterator();
+    while (it.hasNext()) {
+      Usage u = it.next();
+      decay(u, now);
+      if (u.decayedNanos < FORGET_NANOS) {
+        it.remove();
+      }
+    }
+    return usage.size();
+  }
+
+  private void decay(Usage u, long now) {
+    if (u.lastUpdate != 0) {
+      u.decayedNanos *= Math.pow(0.5, (double) (now - u.lastUpdate) / halfLifeNanos);
+    }
+    u.lastUpdate = now;
+  }
+
+  private void decayTotal(long now) {
+    totalDecayedNanos *= Math.pow(0.5, (double) (now - totalLastUpdate) / halfLifeNanos);
+    totalLastUpdate = now;
+  }
+
+  public synchronized Map<String, Object> getStats() {
+    long now = System.nanoTime();
+    decayTotal(now);
+    int competing = prune(now);
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("halfLifeMs", halfLifeNanos / 1_000_000);
+    stats.put("activeSessions", competing);
+    stats.put("load", Math.round(totalDecayedNanos / capacityNanos * 1000) / 1000.0);
+    stats.put("throttledSearches", throttled);
+    return stats;
+  }
+
+  /**
+   * @return the summary plus the heaviest sessions, most CPU first
+   */
+  public synchronized Map<String, Object> getSessionStats(int limit) {
+    Map<String, Object> stats = getStats();
+    List<Map.Entry<String, Usage>> entries = new ArrayList<>(usage.entrySet());
+    entries.sort((a, b) -> Double.compare(b.getValue().decayedNanos, a.getValue().decayedNanos));
+
+    List<Map<String, Object>> sessions = new ArrayList<>();
+    for (Map.Entry<String, Usage> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+      Usage u = entry.getValue();
+      Map<String, Object> s = new LinkedHashMap<>();
+      s.put("connectionId", entry.getKey());
+      s.put("cpuMsDecayed", Math.round(u.decayedNanos / 1e6));
+      s.put("cpuMsTotal", u.totalNanos / 1_000_000);
+      s.put("share", (totalDecayedNanos == 0) ? 0.0 : Math.round(u.decayedNanos / totalDecayedNanos * 1000) / 1000.0);
+      s.put("searches", u.searches);
+      s.put("throttledSearches", u.throttled);
+      s.put("lastBudgetScale", Math.round(u.lastScale * 1000) / 1000.0);
+      sessions.add(s);
+    }
+    stats.put("sessions", sessions);
+    return stats;
+  }
+}
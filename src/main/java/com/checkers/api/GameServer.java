@@ -3,37 +3,175 @@ package main.java.com.checkers.api;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import main.java.com.checkers.ai.BatchEvaluator;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.ai.SearchSettings;
+import main.java.com.checkers.game.PositionHistory;
+import main.java.com.checkers.http.NioHttpServer;
+import main.java.com.checkers.persist.GameArchive;
+import main.java.com.checkers.persist.GameRecord;
+import main.java.com.checkers.persist.Pdn;
+import main.java.com.checkers.persist.SessionJournal;
+import main.java.com.checkers.persist.SessionState;
+import main.java.com.checkers.util.BinaryCodec;
 import main.java.com.checkers.util.GameResponse;
 import main.java.com.checkers.util.GameResponseUtil;
+import main.java.com.checkers.util.ServerConfig;
 
 public class GameServer {
 
   private HttpServer gameServer;
     private final int port;
     private final String host;
-    Map<String, GameThread> gameThreads = new ConcurrentHashMap<>();
+    private final ServerConfig config;
+    private ExecutorService requestExecutor;
+    private AIScheduler aiScheduler;
+    private AIJobRegistry aiJobs;
+    private CpuAccounting cpuAccounting;
+    private LoadController loadController;
+    private String adminToken;
+    private long maxPollWaitMs;
+    private ScheduledExecutorService streamTicker;
+    private long streamIntervalMs;
+    private ExecutorService sessionPool;
+    private SessionJournal journal;
+    private GameArchive archive;
+    SessionRegistry sessions;
+    private volatile boolean ready;
+    private volatile Map<String, Object> warmUpReport;
 
     public GameServer(String host, int port) {
+        this(host, port, new ServerConfig());
+    }
+
+    public GameServer(String host, int port, ServerConfig config) {
         this.host = host;
         this.port = port;
+        this.config = config;
     }
 
-  String generateConnectionId() {
-    return UUID.randomUUID().toString().substring(0, 12); // Or Base64.getEncoder().encodeToString(bytes)
-  }
-
   public void startServer() throws IOException {
-    // Create HttpServer
-    gameServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+    // Create HttpServer; the NIO engine runs the same handlers
+    InetSocketAddress address = new InetSocketAddress(host, port);
+    int backlog = config.getInt("HTTP_BACKLOG", 1024);
+    if (config.getString("SERVER_ENGINE", "jdk").equalsIgnoreCase("nio")) {
+      gameServer = new NioHttpServer(
+        address,
+        backlog,
+        config.getInt("NIO_EVENT_LOOPS", Math.min(4, Runtime.getRuntime().availableProcessors())),
+        config.getInt("NIO_BUFFER_SIZE", 16 * 1024),
+        config.getLong("HTTP_IDLE_TIMEOUT_MS", 60000)
+      );
+    } else {
+      gameServer = HttpServer.create(address, backlog);
+    }
+
+    // Request threads only parse, validate and wait; searches run on the AI scheduler
+    requestExecutor = Executors.newFixedThreadPool(config.getInt("HTTP_THREADS", 32));
+    gameServer.setExecutor(requestExecutor);
+
+    aiScheduler = new AIScheduler(
+      config.getInt("AI_WORKERS", Math.max(2, Runtime.getRuntime().availableProcessors())),
+      config.getInt("AI_LANE_CAPACITY", 64),
+      config.getLong("AI_MAX_QUEUE_WAIT_MS", 10000)
+    );
+    if (config.getBoolean("AI_FAIR_SHARE", true)) {
+      cpuAccounting = new CpuAccounting(
+        // Busy workers beyond the core count add no CPU to share
+        Math.min(aiScheduler.getWorkerCount(), Runtime.getRuntime().availableProcessors()),
+        config.getLong("AI_CPU_HALF_LIFE_MS", 60000),
+        config.getDouble("AI_FAIR_SHARE_FACTOR", 1.5),
+        config.getDouble("AI_FAIR_SHARE_MIN_SCALE", 0.25),
+        config.getDouble("AI_FAIR_SHARE_MIN_LOAD", 0.5)
+      );
+    }
+    if (config.getBoolean("AI_SLO_ENABLED", true)) {
+      loadController = new LoadController(
+        new long[] {
+          config.getLong("AI_SLO_P95_MS_EASY", 500),
+          config.getLong("AI_SLO_P95_MS_MEDIUM", 1500),
+          config.getLong("AI_SLO_P95_MS_HARD", 4000),
+        },
+        config.getDouble("AI_SLO_MIN_SCALE", 0.2),
+        config.getDouble("AI_SLO_STEP", 0.05),
+        config.getDouble("AI_SLO_MAX_LOAD", 1.5),
+        config.getLong("AI_SLO_INTERVAL_MS", 2000)
+      );
+    }
+    aiJobs = new AIJobRegistry(
+      aiScheduler,
+      config.getLong("AI_JOB_RETENTION_MS", 60000),
+      cpuAccounting,
+      loadController
+    );
+    adminToken = config.getString("ADMIN_TOKEN", "");
+    maxPollWaitMs = config.getLong("AI_MAX_POLL_WAIT_MS", 30000);
+    SearchSettings.configure(config);
+    PositionHistory.configure(config);
+    SearchCache.configure(config);
+
+    streamIntervalMs = config.getLong("AI_STREAM_INTERVAL_MS", 200);
+    streamTicker = Executors.newScheduledThreadPool(2, r -> {
+      Thread t = new Thread(r, "ai-stream");
+      t.setDaemon(true);
+      return t;
+    });
+
+    // Sessions own no threads; their mailboxes share this pool
+    sessionPool = Executors.newFixedThreadPool(
+      config.getInt("SESSION_THREADS", Math.max(4, 2 * Runtime.getRuntime().availableProcessors())),
+      r -> {
+        Thread t = new Thread(r, "session-worker");
+        t.setDaemon(true);
+        return t;
+      }
+    );
+    // Games in progress survive restarts: restore them before taking requests
+    List<SessionState> saved = List.of();
+    long restoreStart = System.nanoTime();
+    if (config.getBoolean("JOURNAL_ENABLED", true)) {
+      journal = new SessionJournal(
+        Path.of(config.getString("JOURNAL_DIR", "journal")),
+        config.getBoolean("JOURNAL_FSYNC", true),
+        config.getLong("JOURNAL_SNAPSHOT_INTERVAL_MS", 60000),
+        config.getInt("JOURNAL_QUEUE", 65536)
+      );
+      saved = journal.open();
+    }
+    if (config.getBoolean("ARCHIVE_ENABLED", true)) {
+      archive = new GameArchive(
+        Path.of(config.getString("ARCHIVE_DIR", "archive")),
+        config.getInt("ARCHIVE_QUEUE", 4096),
+        config.getLong("ARCHIVE_ROLL_BYTES", 16L * 1024 * 1024)
+      );
+      archive.start();
+    }
+    sessions = new SessionRegistry(
+      config.getLong("SESSION_IDLE_TTL_MS", 30 * 60 * 1000),
+      config.getInt("SESSION_MAX", 5000),
+      config.getLong("SESSION_WHEEL_TICK_MS", 1000),
+      sessionPool,
+      journal,
+      archive
+    );
+    if (journal != null) {
+      int restored = sessions.restore(saved);
+      System.out.println(
+        "Restored " + restored + " sessions from the journal in " +
+        (System.nanoTime() - restoreStart) / 1_000_000 + " ms"
+      );
+    }
 
     createContexts();
 
@@ -68,36 +206,36 @@ public class GameServer {
 
           String connectionId = params.get("connection-id");
           System.out.println("Using connId: " + connectionId);
-          if (connectionId != null && gameThreads.containsKey(connectionId)) {
+          if (connectionId != null && sessions.contains(connectionId)) {
             // Already established -> Return a failure response with a message
             GameResponse<?> gameResponse = GameResponseUtil.generateResponse(
               false,
               "User already has established connection"
             );
-            String responseJson = HttpUtils.formatGameResponse(gameResponse);
             System.out.println("Existing connection");
-            exchange.sendResponseHeaders(200, responseJson.length());
-            exchange.getResponseBody().write(responseJson.getBytes());
+            HttpUtils.sendResponse(exchange, 200, HttpUtils.formatGameResponse(gameResponse));
             return;
           }
           // Create a new connection
-          connectionId = generateConnectionId(); // e.g., UUID substring
+          GameSession session;
+          try {
+            session = sessions.create();
+          } catch (SessionRegistry.CapacityException full) {
+            exchange.getResponseHeaders().set("Retry-After", "60");
+            HttpUtils.sendResponse(exchange, 503, "[Busy] " + full.getMessage());
+            return;
+          }
+          connectionId = session.getConnectionId();
           System.out.println("New connection from: " + connectionId);
 
-          GameThread gameThread = new GameThread(connectionId);
-          gameThreads.put(connectionId, gameThread);
-          gameThread.start();
-          gameThread.newGame();
+          session.newGame();
 
           // Return a success response with the connectionId as the message
           GameResponse<?> gameResponse = GameResponseUtil.generateResponse(
             true,
             connectionId
           );
-          String responseJson = HttpUtils.formatGameResponse(gameResponse);
-
-          exchange.sendResponseHeaders(200, responseJson.length());
-          exchange.getResponseBody().write(responseJson.getBytes());
+          HttpUtils.sendResponse(exchange, 200, HttpUtils.formatGameResponse(gameResponse));
         } catch (Exception e) {
           System.out.println("[Error] " + e.getMessage());
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
@@ -135,9 +273,9 @@ public class GameServer {
             exchange.getRequestBody()
           );
           String connectionId = HttpUtils.getConnectionId(params);
-          GameThread userThread = gameThreads.get(connectionId);
+          GameSession session = sessions.get(connectionId);
 
-          if (userThread == null) {
+          if (session == null) {
             HttpUtils.sendResponse(
               exchange,
               200,
@@ -146,9 +284,11 @@ public class GameServer {
             return;
           }
 
-          userThread.resetGame();
-          System.out.println(connectionId + " reset their game");
-          HttpUtils.sendResponse(exchange, 200, "[Success] reset game");
+          respond(exchange, session, () -> {
+            session.resetGame();
+            System.out.println(connectionId + " reset their game");
+            return Reply.text(200, "[Success] reset game");
+          });
         } catch (Exception e) {
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
@@ -186,9 +326,9 @@ public class GameServer {
             exchange.getRequestBody()
           );
           String connectionId = HttpUtils.getConnectionId(params);
-          GameThread userThread = gameThreads.get(connectionId);
+          GameSession session = sessions.get(connectionId);
 
-          if (userThread == null) {
+          if (session == null) {
             HttpUtils.sendResponse(
               exchange,
               200,
@@ -197,9 +337,11 @@ public class GameServer {
             return;
           }
 
-          userThread.newGame();
-          System.out.println(connectionId + " stopped their game");
-          HttpUtils.sendResponse(exchange, 200, "[Success] stopped game");
+          respond(exchange, session, () -> {
+            session.newGame();
+            System.out.println(connectionId + " stopped their game");
+            return Reply.text(200, "[Success] stopped game");
+          });
         } catch (Exception e) {
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
@@ -238,8 +380,8 @@ public class GameServer {
           );
           String connectionId = HttpUtils.getConnectionId(params);
 
-          GameThread userThread = gameThreads.get(connectionId);
-          if (userThread == null) {
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
             HttpUtils.sendResponse(
               exchange,
               404,
@@ -248,28 +390,21 @@ public class GameServer {
             return;
           }
 
-          if (userThread.hasActiveGame()) {
-            HttpUtils.sendResponse(
-              exchange,
-              404,
-              "[Refused] User has an active game"
-            );
-            return;
-          }
-
           int difficulty = Integer.parseInt(params.get("difficulty"));
           int playerColor = Integer.parseInt(params.get("playerColor"));
 
-          GameResponse<Void> gameResponse = userThread.startGame(
-            difficulty,
-            playerColor
-          );
-
-          String response = HttpUtils.formatGameResponse(gameResponse);
+          respond(exchange, session, () -> {
+            if (session.hasActiveGame()) {
+              return Reply.text(404, "[Refused] User has an active game");
+            }
 
-          exchange.getResponseHeaders().set("Content-Type", "application/json");
-          HttpUtils.sendResponse(exchange, 200, response);
-          System.out.println(connectionId + " started a new game");
+            GameResponse<Void> gameResponse = session.startGame(
+              difficulty,
+              playerColor
+            );
+            System.out.println(connectionId + " started a new game");
+            return Reply.json(200, HttpUtils.formatGameResponse(gameResponse));
+          });
         } catch (Exception e) {
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
@@ -308,8 +443,8 @@ public class GameServer {
           );
           String connectionId = HttpUtils.getConnectionId(params);
 
-          GameThread userThread = gameThreads.get(connectionId);
-          if (userThread == null) {
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
             HttpUtils.sendResponse(
               exchange,
               404,
@@ -318,35 +453,38 @@ public class GameServer {
             return;
           }
 
-          if (!userThread.hasActiveGame()) {
-            HttpUtils.sendResponse(
-              exchange,
-              404,
-              "[Refused] User needs to start a game"
-            );
-            return;
-          }
-
           int row = Integer.parseInt(params.get("row"));
           int col = Integer.parseInt(params.get("col"));
+          boolean binary = HttpUtils.acceptsBinary(exchange);
+          exchange.getResponseHeaders().set("Vary", "Accept");
 
-          if (!userThread.isValidPiece(row, col)) {
-            HttpUtils.sendResponse(
-              exchange,
-              404,
-              "[Refused] Not a valid piece"
-            );
-            return;
-          }
+          respond(exchange, session, () -> {
+            if (!session.hasActiveGame()) {
+              return Reply.text(404, "[Refused] User needs to start a game");
+            }
 
-          GameResponse<ArrayList<int[]>> gameResponse = userThread.getLegalMoves(
-            row,
-            col
-          );
-          String response = HttpUtils.formatGameResponse(gameResponse);
+            if (!session.isValidPiece(row, col)) {
+              return Reply.text(404, "[Refused] Not a valid piece");
+            }
 
-          exchange.getResponseHeaders().set("Content-Type", "application/json");
-          HttpUtils.sendResponse(exchange, 200, response);
+            GameResponse<ArrayList<int[]>> gameResponse = session.getLegalMoves(
+              row,
+              col
+            );
+            if (binary) {
+              return Reply.binary(
+                200,
+                BinaryCodec.encodeMoves(
+                  row,
+                  col,
+                  gameResponse.getData(),
+                  session.getSideToMove(),
+                  session.getPositionVersion()
+                )
+              );
+            }
+            return Reply.json(200, HttpUtils.formatGameResponse(gameResponse));
+          });
         } catch (Exception e) {
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
@@ -366,7 +504,8 @@ public class GameServer {
           );
         exchange
           .getResponseHeaders()
-          .add("Access-Control-Allow-Headers", "Content-Type,Authorization");
+          .add("Access-Control-Allow-Headers", "Content-Type,Authorization,If-None-Match");
+        exchange.getResponseHeaders().add("Access-Control-Expose-Headers", "ETag");
 
         // Handle OPTIONS request (preflight)
         if (exchange.getRequestMethod().equals("OPTIONS")) {
@@ -384,13 +523,13 @@ public class GameServer {
           );
           String connectionId = HttpUtils.getConnectionId(params);
 
-          GameThread userThread = gameThreads.get(connectionId);
-          if (userThread == null) {
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
             GameResponse<Void> errorResponse = new GameResponse<>(
               false,
               "[Refused] no active connection"
             );
-            String errorJson = HttpUtils.formatGameResponse(errorResponse);
+            byte[] errorJson = HttpUtils.formatGameResponse(errorResponse);
             exchange
               .getResponseHeaders()
               .set("Content-Type", "application/json");
@@ -398,18 +537,47 @@ public class GameServer {
             return;
           }
 
-          GameResponse<int[][]> gameResponse = userThread.getBoard();
-          //cpmvert to a string
-          String successJson = HttpUtils.formatGameResponse(gameResponse);
-          exchange.getResponseHeaders().set("Content-Type", "application/json");
-          HttpUtils.sendResponse(exchange, 200, successJson);
+          boolean binary = HttpUtils.acceptsBinary(exchange);
+          String variant = binary ? "board.bin" : "board.json";
+          exchange.getResponseHeaders().set("Vary", "Accept");
+
+          // Unchanged position: answer from the cached bytes, no mailbox hop
+          if (
+            HttpUtils.sendCached(
+              exchange,
+              session,
+              variant,
+              binary ? BinaryCodec.CONTENT_TYPE : "application/json"
+            )
+          ) {
+            return;
+          }
+
+          // Serialize inside the mailbox so a concurrent move can't tear the board
+          respond(exchange, session, () -> {
+            long version = session.getPositionVersion();
+            String etag = HttpUtils.etag(session, version, variant);
+            if (HttpUtils.notModified(exchange, etag)) {
+              return Reply.notModified(etag);
+            }
+            GameResponse<int[][]> gameResponse = session.getBoard();
+            if (gameResponse.getData() == null) {
+              return Reply.json(200, HttpUtils.formatGameResponse(gameResponse));
+            }
+            byte[] body = binary
+              ? BinaryCodec.encodeBoard(gameResponse.getData(), session.getSideToMove(), version)
+              : HttpUtils.formatGameResponse(gameResponse);
+            session.cacheBody(variant, version, body);
+            Reply reply = binary ? Reply.binary(200, body) : Reply.json(200, body);
+            return reply.header("ETag", etag);
+          });
         } catch (Exception e) {
           // Another error scenario
           GameResponse<Void> exceptionResponse = new GameResponse<>(
             false,
             "[Error] " + e.getMessage()
           );
-          String exceptionJson = HttpUtils.formatGameResponse(
+          byte[] exceptionJson = HttpUtils.formatGameResponse(
             exceptionResponse
           );
           exchange.getResponseHeaders().set("Content-Type", "application/json");
@@ -449,8 +617,8 @@ public class GameServer {
           );
           String connectionId = HttpUtils.getConnectionId(params);
 
-          GameThread userThread = gameThreads.get(connectionId);
-          if (userThread == null) {
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
             HttpUtils.sendResponse(
               exchange,
               404,
@@ -459,26 +627,20 @@ public class GameServer {
             return;
           }
 
-          if (!userThread.hasActiveGame()) {
-            HttpUtils.sendResponse(
-              exchange,
-              404,
-              "[Refused] User needs to start a game"
-            );
-            return;
-          }
-
           int fRow = Integer.parseInt(params.get("f-row"));
           int fCol = Integer.parseInt(params.get("f-col"));
           int tRow = Integer.parseInt(params.get("t-row"));
           int tCol = Integer.parseInt(params.get("t-col"));
 
-          GameResponse<Void> gameResponse = userThread.makePlayerMove(fRow, fCol, tRow, tCol);
-          String response = HttpUtils.formatGameResponse(gameResponse);
+          respond(exchange, session, () -> {
+            if (!session.hasActiveGame()) {
+              return Reply.text(404, "[Refused] User needs to start a game");
+            }
 
-          exchange.getResponseHeaders().set("Content-Type", "application/json");
-          HttpUtils.sendResponse(exchange, 200, response);
-        }catch(Error e){
+            GameResponse<Void> gameResponse = session.makePlayerMove(fRow, fCol, tRow, tCol);
+            return Reply.json(200, HttpUtils.formatGameResponse(gameResponse));
+          });
+        }catch(Exception e){
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
       }
@@ -515,9 +677,9 @@ public class GameServer {
           );
           String connectionId = HttpUtils.getConnectionId(params);
 
-          GameThread userThread = gameThreads.get(connectionId);
+          GameSession session = sessions.get(connectionId);
 
-          if (userThread == null) {
+          if (session == null) {
             HttpUtils.sendResponse(
               exchange,
               404,
@@ -526,7 +688,7 @@ public class GameServer {
             return;
           }
 
-          if (!userThread.hasActiveGame()) {
+          if (!session.hasActiveGame()) {
             HttpUtils.sendResponse(
               exchange,
               404,
@@ -535,11 +697,15 @@ public class GameServer {
             return;
           }
 
-
-          GameResponse<Void> gameResponse = userThread.makeAIMove();
-          String response = HttpUtils.formatGameResponse(gameResponse);
-          exchange.getResponseHeaders().set("Content-Type", "application/json");
-          HttpUtils.sendResponse(exchange, 200, response);
+          // Same job path as the async API; the exchange is answered from the
+          // completion callback so no request thread waits on the search
+          AIJob job = aiJobs.submit(session);
+          job
+            .getFuture()
+            .whenCompleteAsync(
+              (done, error) -> HttpUtils.sendMoveResult(exchange, job),
+              requestExecutor
+            );
 
         }catch(Exception e){
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
@@ -549,6 +715,53 @@ public class GameServer {
     );
 
     
+    gameServer.createContext(
+      "/turn",
+      exchange -> {
+        setCORSHeaders(exchange);
+
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        if (!exchange.getRequestMethod().equals("POST")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
+
+        try {
+          Map<String, String> params = HttpUtils.parseRequestBody(
+            exchange.getRequestBody()
+          );
+          String connectionId = HttpUtils.getConnectionId(params);
+
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
+            HttpUtils.sendResponse(
+              exchange,
+              404,
+              "[Refused] no active connection"
+            );
+            return;
+          }
+
+          int fRow = Integer.parseInt(params.get("f-row"));
+          int fCol = Integer.parseInt(params.get("f-col"));
+          int tRow = Integer.parseInt(params.get("t-row"));
+          int tCol = Integer.parseInt(params.get("t-col"));
+
+          playTurn(session, fRow, fCol, tRow, tCol)
+            .whenCompleteAsync(
+              (reply, error) -> HttpUtils.sendReply(exchange, reply, error),
+              requestExecutor
+            );
+        } catch (Exception e) {
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
+        }
+      }
+    );
+
     gameServer.createContext(
       "/game-status",
       exchange -> {
@@ -562,7 +775,8 @@ public class GameServer {
           );
         exchange
           .getResponseHeaders()
-          .add("Access-Control-Allow-Headers", "Content-Type,Authorization");
+          .add("Access-Control-Allow-Headers", "Content-Type,Authorization,If-None-Match");
+        exchange.getResponseHeaders().add("Access-Control-Expose-Headers", "ETag");
 
         // Handle OPTIONS request (preflight)
         if (exchange.getRequestMethod().equals("OPTIONS")) {
@@ -580,9 +794,66 @@ public class GameServer {
           );
           String connectionId = HttpUtils.getConnectionId(params);
 
-          GameThread userThread = gameThreads.get(connectionId);
+          GameSession session = sessions.get(connectionId);
+
+          if (session == null) {
+            HttpUtils.sendResponse(
+              exchange,
+              404,
+              "[Refused] no active connection"
+            );
+            return;
+          }
+
+          if (HttpUtils.sendCached(exchange, session, "status.json", "application/json")) {
+            return;
+          }
+
+          respond(exchange, session, () -> {
+            if (!session.hasActiveGame()) {
+              return Reply.text(404, "[Refused] User needs to start a game");
+            }
+
+            long version = session.getPositionVersion();
+            String etag = HttpUtils.etag(session, version, "status.json");
+            if (HttpUtils.notModified(exchange, etag)) {
+              return Reply.notModified(etag);
+            }
+            GameResponse<Integer> gameResponse = session.gameStatus();
+            byte[] body = HttpUtils.formatGameResponse(gameResponse);
+            session.cacheBody("status.json", version, body);
+            return Reply.json(200, body).header("ETag", etag);
+          });
+
+        }catch(Exception e){
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
+        }
+      }
+    );
+
+    gameServer.createContext(
+      "/make-ai-move-async",
+      exchange -> {
+        setCORSHeaders(exchange);
+
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        if (!exchange.getRequestMethod().equals("PUT")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
+
+        try {
+          Map<String, String> params = HttpUtils.parseRequestBody(
+            exchange.getRequestBody()
+          );
+          String connectionId = HttpUtils.getConnectionId(params);
 
-          if (userThread == null) {
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
             HttpUtils.sendResponse(
               exchange,
               404,
@@ -591,7 +862,7 @@ public class GameServer {
             return;
           }
 
-          if (!userThread.hasActiveGame()) {
+          if (!session.hasActiveGame()) {
             HttpUtils.sendResponse(
               exchange,
               404,
@@ -600,155 +871,477 @@ public class GameServer {
             return;
           }
 
-          GameResponse<Integer> gameResponse = userThread.gameStatus();
-          String response = HttpUtils.formatGameResponse(gameResponse);
+          AIJob job = aiJobs.submit(session);
+          byte[] response = HttpUtils.formatGameResponse(
+            new GameResponse<>(true, job.getJobId(), job.toData())
+          );
           exchange.getResponseHeaders().set("Content-Type", "application/json");
-          HttpUtils.sendResponse(exchange, 200, response);
-
-        }catch(Exception e){
+          HttpUtils.sendResponse(exchange, 202, response);
+        } catch (Exception e) {
           HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
       }
     );
-  }
 
-  private void setCORSHeaders(HttpExchange exchange) {
-    exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-    exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-    exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type,Authorization");
-  }
-  public void stopServer() {
-    if (gameServer != null) {
-      gameServer.stop(0); // 0 means stop immediately
-      System.out.println("Server stopped");
-    }
-  }
+    gameServer.createContext(
+      "/ai-move-result",
+      exchange -> {
+        setCORSHeaders(exchange);
 
-  public HttpServer getServer() {
-    return gameServer;
-  }
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        if (!exchange.getRequestMethod().equals("PUT")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
 
-  private class HttpUtils {
+        try {
+          Map<String, String> params = HttpUtils.parseRequestBody(
+            exchange.getRequestBody()
+          );
+          String connectionId = HttpUtils.getConnectionId(params);
+          String jobId = params.get("job-id");
+          if (jobId == null) {
+            throw new IllegalArgumentException("Missing job-id");
+          }
 
-    // Parse incoming requests
-    public static Map<String, String> parseRequestBody(InputStream requestBody)
-      throws IOException {
-      if (requestBody == null) {
-        throw new IOException("Request body is empty");
-      }
+          AIJob job = aiJobs.get(jobId, connectionId);
+          if (job == null) {
+            HttpUtils.sendResponse(exchange, 404, "[Refused] unknown job");
+            return;
+          }
 
-      byte[] bytes = requestBody.readAllBytes();
-      if (bytes.length == 0) {
-        throw new IOException("Request body is empty");
+          // wait-ms = 0 (default) is a plain poll, otherwise long-poll up to the cap
+          long waitMs = Math.min(
+            Long.parseLong(params.getOrDefault("wait-ms", "0")),
+            maxPollWaitMs
+          );
+          aiJobs
+            .await(job, waitMs)
+            .thenAcceptAsync(
+              polled -> HttpUtils.sendJobStatus(exchange, polled),
+              requestExecutor
+            );
+        } catch (Exception e) {
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
+        }
       }
+    );
 
-      String requestString = new String(bytes);
-      if (requestString.trim().isEmpty()) {
-        throw new IOException("Request body is empty");
-      }
+    gameServer.createContext(
+      "/ai-move-stream",
+      exchange -> {
+        setCORSHeaders(exchange);
 
-      Map<String, String> params = new HashMap<>();
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        // EventSource can only GET, so parameters come from the query string
+        if (!exchange.getRequestMethod().equals("GET")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
+
+        try {
+          Map<String, String> params = HttpUtils.parseQuery(exchange.getRequestURI());
+          String connectionId = HttpUtils.getConnectionId(params);
+
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
+            HttpUtils.sendResponse(
+              exchange,
+              404,
+              "[Refused] no active connection"
+            );
+            return;
+          }
 
-      // Remove curly braces and extra whitespace
-      requestString = requestString.replaceAll("[{}]", "").trim();
+          // Follow an existing job, or start the AI move when no job-id is given
+          AIJob job;
+          String jobId = params.get("job-id");
+          if (jobId != null) {
+            job = aiJobs.get(jobId, connectionId);
+            if (job == null) {
+              HttpUtils.sendResponse(exchange, 404, "[Refused] unknown job");
+              return;
+            }
+          } else {
+            if (!session.hasActiveGame()) {
+              HttpUtils.sendResponse(
+                exchange,
+                404,
+                "[Refused] User needs to start a game"
+              );
+              return;
+            }
+            job = aiJobs.submit(session);
+          }
 
-      // Split on commas, but handle quotes properly
-      String[] pairs = requestString.split(",");
-      for (String pair : pairs) {
-        // Split on colon and handle quotes
-        String[] keyValue = pair.split(":");
-        if (keyValue.length == 2) {
-          String key = keyValue[0].replaceAll("[\"\\s]", "");
-          String value = keyValue[1].replaceAll("[\"\\s]", "");
-          params.put(key, value);
+          long intervalMs = params.containsKey("interval-ms")
+            ? Long.parseLong(params.get("interval-ms"))
+            : streamIntervalMs;
+          intervalMs = Math.max(50, Math.min(5000, intervalMs));
+          SearchEventStream.open(exchange, session, job, intervalMs, streamTicker);
+        } catch (Exception e) {
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
       }
+    );
 
-      if (params.isEmpty()) {
-        throw new IOException("No valid key-value pairs found in request body");
+    gameServer.createContext(
+      "/stats",
+      exchange -> {
+        setCORSHeaders(exchange);
+
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
+
+        try {
+          if (archive == null) {
+            HttpUtils.sendResponse(exchange, 404, "[Refused] game archive is disabled");
+            return;
+          }
+          // Running totals only; the archive files are never read here
+          byte[] response = HttpUtils.formatGameResponse(
+            new GameResponse<>(true, "Game statistics retrieved", archive.getGameStats().toData())
+          );
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          HttpUtils.sendResponse(exchange, 200, response);
+        } catch (Exception e) {
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
+        }
       }
+    );
 
-      return params;
-    }
+    gameServer.createContext(
+      "/game-pdn",
+      exchange -> {
+        setCORSHeaders(exchange);
+
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        if (!exchange.getRequestMethod().equals("PUT")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
+
+        try {
+          Map<String, String> params = HttpUtils.parseRequestBody(
+            exchange.getRequestBody()
+          );
+          String connectionId = HttpUtils.getConnectionId(params);
+
+          GameSession session = sessions.get(connectionId);
+          if (session == null) {
+            HttpUtils.sendResponse(
+              exchange,
+              404,
+              "[Refused] no active connection"
+            );
+            return;
+          }
 
-    // Handle sending responses
-    public static void sendResponse(
-      HttpExchange exchange,
-      int statusCode,
-      String message
-    ) throws IOException {
-      exchange.sendResponseHeaders(statusCode, message.length());
-      try (OutputStream os = exchange.getResponseBody()) {
-        os.write(message.getBytes());
+          GameRecord game = session.getLastFinishedGame();
+          if (game == null) {
+            HttpUtils.sendResponse(exchange, 404, "[Refused] no finished game");
+            return;
+          }
+          exchange.getResponseHeaders().set("Content-Type", "application/x-pdn; charset=utf-8");
+          HttpUtils.sendResponse(exchange, 200, Pdn.format(game));
+        } catch (Exception e) {
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
+        }
       }
-    }
+    );
+
+    gameServer.createContext(
+      "/ready",
+      exchange -> {
+        setCORSHeaders(exchange);
 
-    // Format JSON responses with generic data
-    public static <T> String formatGameResponse(GameResponse<T> response) {
-      if (response.getData() == null) {
-        return String.format(
-          "{\"success\": %b, \"message\": \"%s\"}",
-          response.isSuccess(),
-          response.getMessage()
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
+
+        // For load balancer health checks: 503 until warm-up has finished
+        if (!ready) {
+          exchange.getResponseHeaders().set("Retry-After", "5");
+          HttpUtils.sendResponse(exchange, 503, "[Busy] warming up");
+          return;
+        }
+        byte[] response = HttpUtils.formatGameResponse(
+          new GameResponse<>(true, "Ready", warmUpReport)
         );
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        HttpUtils.sendResponse(exchange, 200, response);
       }
+    );
 
-      return String.format(
-        "{\"success\": %b, \"message\": \"%s\", \"data\": %s}",
-        response.isSuccess(),
-        response.getMessage(),
-        formatData(response.getData())
-      );
-    }
+    gameServer.createContext(
+      "/metrics",
+      exchange -> {
+        setCORSHeaders(exchange);
 
-    private static String formatData(Object data) {
-      if (data instanceof int[][]) {
-        return formatBoardArray((int[][]) data);
-      }
-      if (
-        data instanceof ArrayList<?> &&
-        !((ArrayList<?>) data).isEmpty() &&
-        ((ArrayList<?>) data).get(0) instanceof int[]
-      ) {
-        return formatMovesArray((ArrayList<int[]>) data);
-      }
-      return data.toString();
-    }
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+
+        try {
+          Map<String, Object> metrics = new LinkedHashMap<>();
+          metrics.put("sessions", sessions.getStats());
+          metrics.put("scheduler", aiScheduler.getStats());
+          metrics.put("aiJobsPending", aiJobs.getPendingCount());
+          metrics.put("aiJobsRetained", aiJobs.getRetainedCount());
+          metrics.put("searchCache", SearchCache.shared().getStats());
+          if (cpuAccounting != null) {
+            metrics.put("cpuShare", cpuAccounting.getStats());
+          }
+          if (loadController != null) {
+            metrics.put("loadController", loadController.getStats());
+          }
+          BatchEvaluator batcher = SearchSettings.getBatchEvaluator();
+          if (batcher != null) {
+            metrics.put("batchEval", batcher.getStats());
+          }
+          if (journal != null) {
+            metrics.put("journal", journal.getStats());
+          }
+          if (archive != null) {
+            metrics.put("archive", archive.getStats());
+          }
+          metrics.put(
+            "http",
+            (gameServer instanceof NioHttpServer nio) ? nio.getStats() : Map.of("engine", "jdk")
+          );
 
-    // Helper method specifically for board array
-    private static String formatBoardArray(int[][] board) {
-      StringBuilder sb = new StringBuilder();
-      sb.append("[");
-      for (int i = 0; i < board.length; i++) {
-        sb.append(Arrays.toString(board[i]));
-        if (i < board.length - 1) {
-          sb.append(",");
+          byte[] response = HttpUtils.formatGameResponse(
+            new GameResponse<>(true, "Metrics retrieved", metrics)
+          );
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          HttpUtils.sendResponse(exchange, 200, response);
+        } catch (Exception e) {
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
       }
-      sb.append("]");
-      return sb.toString();
-    }
+    );
+
+    gameServer.createContext(
+      "/admin/sessions",
+      exchange -> {
+        setCORSHeaders(exchange);
 
-    private static String formatMovesArray(ArrayList<int[]> moves) {
-      StringBuilder sb = new StringBuilder();
-      sb.append("[");
-      for (int i = 0; i < moves.size(); i++) {
-        sb.append(Arrays.toString(moves.get(i)));
-        if (i < moves.size() - 1) {
-          sb.append(",");
+        // Handle OPTIONS request (preflight)
+        if (exchange.getRequestMethod().equals("OPTIONS")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+          HttpUtils.sendResponse(exchange, 405, "Method not allowed");
+          return;
+        }
+
+        try {
+          // Lists connection ids, so it only exists behind a configured token
+          if (cpuAccounting == null || adminToken.isEmpty()) {
+            HttpUtils.sendResponse(exchange, 404, "[Refused] admin view is disabled");
+            return;
+          }
+          String auth = exchange.getRequestHeaders().getFirst("Authorization");
+          if (auth == null || !auth.equals("Bearer " + adminToken)) {
+            HttpUtils.sendResponse(exchange, 403, "[Refused] admin token required");
+            return;
+          }
+          Map<String, String> params = HttpUtils.parseQuery(exchange.getRequestURI());
+          int limit = Math.max(1, Math.min(1000, Integer.parseInt(params.getOrDefault("limit", "50"))));
+
+          byte[] response = HttpUtils.formatGameResponse(
+            new GameResponse<>(true, "Session CPU usage retrieved", cpuAccounting.getSessionStats(limit))
+          );
+          exchange.getResponseHeaders().set("Content-Type", "application/json");
+          HttpUtils.sendResponse(exchange, 200, response);
+        } catch (Exception e) {
+          HttpUtils.sendResponse(exchange, 400, "[Error] " + e.getMessage());
         }
       }
-      sb.append("]");
-      return sb.toString();
+    );
+  }
+
+  // Run an operation in the session's mailbox and answer once it has run
+  // and whatever it changed is journaled
+  private void respond(
+    HttpExchange exchange,
+    GameSession session,
+    Callable<Reply> operation
+  ) {
+    session
+      .submit(operation)
+      .thenCompose(reply -> session.whenDurable().thenApply(durable -> reply))
+      .whenCompleteAsync(
+        (reply, error) -> HttpUtils.sendReply(exchange, reply, error),
+        requestExecutor
+      );
+  }
+
+  // Result of the player's half of a /turn, read inside the mailbox
+  private record PlayerTurn(GameResponse<Void> move, boolean aiToMove) {}
+
+  /**
+   * Applies the player's move, lets the AI reply through the usual job path
+   * and answers with the position the player moves from next.
+   */
+  private CompletableFuture<Reply> playTurn(
+    GameSession session,
+    int fRow,
+    int fCol,
+    int tRow,
+    int tCol
+  ) {
+    return session
+      .submit(() -> {
+        if (!session.hasActiveGame()) {
+          throw new IllegalStateException("User needs to start a game");
+        }
+        GameResponse<Void> move;
+        if (!session.isPlayerTurn()) {
+          move = new GameResponse<>(false, "Not the player's turn.");
+        } else if (!session.isValidPiece(fRow, fCol)) {
+          move = new GameResponse<>(false, "Not a valid piece");
+        } else {
+          move = session.makePlayerMove(fRow, fCol, tRow, tCol);
+        }
+        return new PlayerTurn(move, move.isSuccess() && session.isAITurn());
+      })
+      .thenCompose(turn -> {
+        if (!turn.aiToMove()) {
+          return session.submit(() -> turnReply(session, turn.move(), null));
+        }
+        AIJob job = aiJobs.submit(session);
+        return job
+          .getFuture()
+          .thenCompose(done -> session.submit(() -> turnReply(session, turn.move(), job)));
+      })
+      .thenCompose(reply -> session.whenDurable().thenApply(durable -> reply));
+  }
+
+  private static Reply turnReply(GameSession session, GameResponse<Void> playerMove, AIJob job) {
+    Map<String, Object> data = new LinkedHashMap<>();
+    Map<String, Object> player = new LinkedHashMap<>();
+    player.put("success", playerMove.isSuccess());
+    player.put("message", playerMove.getMessage());
+    data.put("playerMove", player);
+
+    if (job != null) {
+      Map<String, Object> ai = new LinkedHashMap<>();
+      ai.put("status", job.getStatus().name().toLowerCase());
+      ai.put("message", job.getMoveResponse().getMessage());
+      ai.put("move", job.getMove());
+      ai.put("budgetScale", job.roundedBudgetScale());
+      data.put("aiMove", ai);
     }
 
-    // Get connection ID
-    public static String getConnectionId(Map<String, String> params) {
-      String connectionId = params.get("connection-id");
-      if (connectionId == null) {
-        throw new IllegalArgumentException("Missing connection-id");
-      }
-      return connectionId;
+    data.put("board", session.getBoard().getData());
+    data.put("gameStatus", session.gameStatus().getData());
+    data.put("version", session.getPositionVersion());
+    data.put("legalMoves", session.isPlayerTurn() ? session.getLegalMoveMap() : List.of());
+
+    Reply reply;
+    if (job != null && job.getStatus() == AIJob.Status.REJECTED) {
+      // The player's move stands; the client retries the AI half via /make-ai-move
+      reply = Reply.json(
+        503,
+        HttpUtils.formatGameResponse(new GameResponse<>(false, job.getMoveResponse().getMessage(), data))
+      );
+      reply.header("Retry-After", String.valueOf(job.getRetryAfterSeconds()));
+    } else {
+      GameResponse<Void> outcome =
+        (job != null && job.getStatus() != AIJob.Status.DONE) ? job.getMoveResponse() : playerMove;
+      boolean success = playerMove.isSuccess() && outcome.isSuccess();
+      reply = Reply.json(
+        200,
+        HttpUtils.formatGameResponse(new GameResponse<>(success, outcome.getMessage(), data))
+      );
     }
+    return reply;
+  }
+
+  private void setCORSHeaders(HttpExchange exchange) {
+    exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+    exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+    exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type,Authorization");
+  }
+  /**
+   * Marks the server ready for /ready, dropping the sessions warm-up made.
+   *
+   * @param report warm-up summary shown by /ready, or null if it was skipped
+   */
+  public void markReady(Map<String, Object> report, List<String> warmUpSessions) {
+    for (String connectionId : warmUpSessions) {
+      sessions.remove(connectionId);
+    }
+    warmUpReport = report;
+    ready = true;
+  }
+
+  public void stopServer() {
+    ready = false;
+    if (gameServer != null) {
+      gameServer.stop(0); // 0 means stop immediately
+      System.out.println("Server stopped");
+    }
+    // Stop new AI work before the journal, which drops records once closed
+    if (streamTicker != null) {
+      streamTicker.shutdownNow();
+    }
+    if (aiJobs != null) {
+      aiJobs.shutdown();
+    }
+    if (loadController != null) {
+      loadController.shutdown();
+    }
+    if (aiScheduler != null) {
+      aiScheduler.shutdown();
+    }
+    if (sessions != null) {
+      sessions.shutdown();
+    }
+    if (journal != null) {
+      journal.close();
+    }
+    if (archive != null) {
+      archive.close();
+    }
+    if (sessionPool != null) {
+      sessionPool.shutdownNow();
+    }
+    if (requestExecutor != null) {
+      requestExecutor.shutdownNow();
+    }
+  }
+
+  public HttpServer getServer() {
+    return gameServer;
   }
 }
@@ -0,0 +1,307 @@
+package main.java.com.checkers.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import main.java.com.checkers.ai.SearchSnapshot;
+import main.java.com.checkers.game.GameManager;
+import main.java.com.checkers.persist.GameArchive;
+import main.java.com.checkers.persist.GameRecord;
+import main.java.com.checkers.persist.SessionJournal;
+import main.java.com.checkers.persist.SessionState;
+import main.java.com.checkers.util.GameResponse;
+import main.java.com.checkers.util.SerialExecutor;
+
+/**
+ * One player's game, owned by a connection id.
+ *
+ * A session is a plain object: it has no thread of its own. The game state
+ * is not thread-safe, so every operation on it must go through the
+ * session's mailbox ({@link #submit} / {@link #submitAsync}), which runs
+ * them one at a time, in arrival order, on a shared pool.
+ *
+ * When a journal is attached, every change to the game is recorded after
+ * it has been applied, still inside the mailbox, so records for a session
+ * are journaled in the order they happened.
+ */
+public class GameSession {
+
+  private GameManager gameManager;
+  private String connectionId;
+  private volatile boolean hasActiveGame;
+  private final long createdAt;
+  private volatile long lastActivity;
+  private final SerialExecutor mailbox;
+  private final SessionJournal journal;
+  private final GameArchive archive;
+  private volatile GameRecord lastFinishedGame;
+  // Sequence number of this session's latest journal record
+  private volatile long journalSeq;
+  // Set once evicted; nothing is journaled for the session after that
+  private volatile boolean closed;
+  // Encoded poll responses, valid only while their version is current
+  private final Map<String, CachedBody> cachedBodies = new ConcurrentHashMap<>();
+
+  /**
+   * A response body encoded for one position version.
+   */
+  public record CachedBody(long version, byte[] body) {}
+
+  public GameSession(String connectionId, Executor pool) {
+    this(connectionId, pool, null, null, System.currentTimeMillis());
+  }
+
+  public GameSession(
+    String connectionId,
+    Executor pool,
+    SessionJournal journal,
+    GameArchive archive,
+    long createdAt
+  ) {
+    this.connectionId = connectionId;
+    this.gameManager = new GameManager();
+    this.hasActiveGame = false;
+    this.createdAt = createdAt;
+    this.lastActivity = System.currentTimeMillis();
+    this.mailbox = new SerialExecutor(pool);
+    this.journal = journal;
+    this.archive = archive;
+  }
+
+  /**
+   * Runs an operation on this session after all earlier ones.
+   */
+  public <T> CompletableFuture<T> submit(Callable<T> operation) {
+    return mailbox.submit(operation);
+  }
+
+  /**
+   * Starts an asynchronous operation (e.g. an AI search) in order; later
+   * operations wait until it completes.
+   */
+  public <T> CompletableFuture<T> submitAsync(Supplier<? extends CompletionStage<T>> operation) {
+    return mailbox.submitAsync(operation);
+  }
+
+  public void newGame() {
+    gameManager.newGame();
+    this.hasActiveGame = false;
+    record(SessionJournal.Event.STOP);
+  }
+
+  public GameResponse<Void> startGame(int difficulty, int playerColor) {
+    this.hasActiveGame = true;
+    GameResponse<Void> response = gameManager.startGame(difficulty, playerColor);
+    record(SessionJournal.Event.START);
+    return response;
+  }
+
+  public void resetGame() {
+    gameManager.resetGame();
+    this.hasActiveGame = false;
+    record(SessionJournal.Event.RESET);
+  }
+
+  /**
+   * Puts back a session read from the journal; call before the session is
+   * visible to requests.
+   */
+  public GameResponse<Void> restore(SessionState state) {
+    this.hasActiveGame = state.started();
+    return gameManager.restoreGame(
+      state.board(),
+      state.difficulty(),
+      state.playerColor(),
+      state.sideToMove(),
+      state.inProgress(),
+      state.started(),
+      state.version()
+    );
+  }
+
+  /**
+   * The state as it is now; call from inside the mailbox.
+   */
+  public SessionState captureState() {
+    return new SessionState(
+      connectionId,
+      createdAt,
+      hasActiveGame,
+      gameManager.isGameInProgress(),
+      gameManager.getDifficulty(),
+      gameManager.getPlayerColor(),
+      gameManager.getSideToMove(),
+      gameManager.getPositionVersion(),
+      gameManager.getBoard().getData()
+    );
+  }
+
+  void record(SessionJournal.Event event) {
+    if (journal != null && !closed) {
+      journalSeq = journal.append(event, captureState());
+    }
+  }
+
+  /**
+   * Stops journaling this session, once it has been evicted; call from
+   * inside the mailbox, after the session has left the registry.
+   */
+  void close() {
+    closed = true;
+  }
+
+  /**
+   * @return a future completed once this session's changes so far are on disk
+   */
+  public CompletableFuture<Void> whenDurable() {
+    return (journal == null)
+      ? CompletableFuture.completedFuture(null)
+      : journal.whenDurable(journalSeq);
+  }
+
+  public GameResponse<int[][]> getBoard() {
+    return gameManager.getBoard();
+  }
+
+  public GameResponse<ArrayList<int[]>> getLegalMoves(int row, int col) {
+    return gameManager.getLegalMoves(row, col);
+  }
+
+  // Called on every request for this connection; read by idle eviction
+  public void touch() {
+    this.lastActivity = System.currentTimeMillis();
+  }
+
+  public long getLastActivity() {
+    return this.lastActivity;
+  }
+
+  public long getCreatedAt() {
+    return this.createdAt;
+  }
+
+  public String getConnectionId() {
+    return this.connectionId;
+  }
+
+  public boolean hasActiveGame() {
+    return this.hasActiveGame;
+  }
+
+  public int getDifficulty() {
+    return this.gameManager.getDifficulty();
+  }
+
+  public int getSideToMove() {
+    return this.gameManager.getSideToMove();
+  }
+
+  public long getPositionVersion() {
+    return this.gameManager.getPositionVersion();
+  }
+
+  /**
+   * @return the body cached under key if it still matches the current
+   *         position version, else null
+   */
+  public CachedBody getCachedBody(String key) {
+    CachedBody cached = cachedBodies.get(key);
+    if (cached == null || cached.version() != getPositionVersion()) {
+      return null;
+    }
+    return cached;
+  }
+
+  // Call from inside the mailbox, with the version the body was built from
+  public void cacheBody(String key, long version, byte[] body) {
+    cachedBodies.put(key, new CachedBody(version, body));
+  }
+
+  public SearchSnapshot getSearchSnapshot() {
+    return this.gameManager.getSearchSnapshot();
+  }
+
+  public boolean isPlayerTurn() {
+    return this.gameManager.isPlayerTurn();
+  }
+
+  public boolean isAITurn() {
+    return this.gameManager.isAITurn();
+  }
+
+  public List<Map<String, Object>> getLegalMoveMap() {
+    return this.gameManager.getLegalMoveMap();
+  }
+
+  public boolean isValidPiece(int r, int c){
+    return this.gameManager.isValidPiece(r, c);
+  }
+
+  public GameResponse<Void> makePlayerMove(int fRow, int fCol, int tRow, int tCol){
+    boolean wasInProgress = this.gameManager.isGameInProgress();
+    GameResponse<Void> response = this.gameManager.makePlayerMove(fRow, fCol, tRow, tCol);
+    if (response.isSuccess()) {
+      record(SessionJournal.Event.MOVE);
+      archiveIfFinished(wasInProgress);
+    }
+    return response;
+  }
+
+  public GameResponse<Void> makeAIMove(){
+    return makeAIMove(1.0);
+  }
+
+  /**
+   * @param budgetScale fraction of the difficulty's search budget to use
+   */
+  public GameResponse<Void> makeAIMove(double budgetScale){
+    boolean wasInProgress = this.gameManager.isGameInProgress();
+    GameResponse<Void> response = this.gameManager.makeAIMove(budgetScale);
+    if (response.isSuccess()) {
+      record(SessionJournal.Event.MOVE);
+      archiveIfFinished(wasInProgress);
+    }
+    return response;
+  }
+
+  // Hands the game to the archive on the move that ended it
+  private void archiveIfFinished(boolean wasInProgress) {
+    if (!wasInProgress || this.gameManager.isGameInProgress() || !hasActiveGame) {
+      return;
+    }
+    GameRecord game = new GameRecord(
+      connectionId,
+      gameManager.getStartedAt(),
+      System.currentTimeMillis(),
+      gameManager.getDifficulty(),
+      gameManager.getPlayerColor(),
+      gameManager.getWinner(),
+      gameManager.getAiThinkMillis(),
+      gameManager.getAiMoves(),
+      gameManager.getStartBoard(),
+      gameManager.getStartSide(),
+      gameManager.getMoveHistory()
+    );
+    lastFinishedGame = game;
+    if (archive != null) {
+      archive.submit(game);
+    }
+  }
+
+  /**
+   * @return the most recent game this session finished, or null
+   */
+  public GameRecord getLastFinishedGame() {
+    return lastFinishedGame;
+  }
+
+  public GameResponse<Integer> gameStatus(){
+    return this.gameManager.getGameState();
+  }
+}
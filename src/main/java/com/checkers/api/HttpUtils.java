@@ -0,0 +1,296 @@
+package main.java.com.checkers.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import main.java.com.checkers.util.BinaryCodec;
+import main.java.com.checkers.util.GameResponse;
+import main.java.com.checkers.util.JsonReader;
+import main.java.com.checkers.util.JsonWriter;
+
+/**
+ * Request parsing and JSON response helpers shared by the server handlers.
+ */
+final class HttpUtils {
+
+  private HttpUtils() {}
+
+  // Request bodies larger than this are rejected
+  private static final int MAX_BODY_BYTES = 64 * 1024;
+
+  // Per-thread scratch state so parsing and formatting allocate only their results
+  private static final ThreadLocal<byte[]> BODY_BUFFER = ThreadLocal.withInitial(() -> new byte[1024]);
+  private static final ThreadLocal<JsonReader> READER = ThreadLocal.withInitial(JsonReader::new);
+  private static final ThreadLocal<JsonWriter> WRITER = ThreadLocal.withInitial(JsonWriter::new);
+
+  // Parse incoming requests
+  public static Map<String, String> parseRequestBody(InputStream requestBody)
+    throws IOException {
+    if (requestBody == null) {
+      throw new IOException("Request body is empty");
+    }
+
+    byte[] buf = BODY_BUFFER.get();
+    int length = 0;
+    int n;
+    while ((n = requestBody.read(buf, length, buf.length - length)) > 0) {
+      length += n;
+      if (length == buf.length) {
+        if (buf.length >= MAX_BODY_BYTES) {
+          // Exactly the limit is allowed; one byte more is not
+          if (requestBody.read() != -1) {
+            throw new IOException("Request body too large");
+          }
+          break;
+        }
+        buf = Arrays.copyOf(buf, Math.min(buf.length * 2, MAX_BODY_BYTES));
+        BODY_BUFFER.set(buf);
+      }
+    }
+
+    int start = 0;
+    while (start < length && buf[start] <= ' ') {
+      start++;
+    }
+    if (start == length) {
+      throw new IOException("Request body is empty");
+    }
+
+    return READER.get().reset(buf, start, length - start).readParams();
+  }
+
+  // Handle sending responses
+  public static void sendResponse(
+    HttpExchange exchange,
+    int statusCode,
+    String message
+  ) throws IOException {
+    sendResponse(exchange, statusCode, message.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static void sendResponse(
+    HttpExchange exchange,
+    int statusCode,
+    byte[] body
+  ) throws IOException {
+    exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(body);
+    }
+  }
+
+  // Write a reply computed in a session mailbox, or the error that aborted it
+  public static void sendReply(HttpExchange exchange, Reply reply, Throwable error) {
+    try {
+      if (error != null) {
+        Throwable cause = (error instanceof CompletionException) ? error.getCause() : error;
+        sendResponse(exchange, 400, "[Error] " + cause.getMessage());
+        return;
+      }
+      for (Map.Entry<String, String> header : reply.headers.entrySet()) {
+        exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+      }
+      if (reply.contentType != null) {
+        exchange.getResponseHeaders().set("Content-Type", reply.contentType);
+      }
+      sendResponse(exchange, reply.statusCode, reply.body);
+    } catch (IOException e) {
+      System.out.println("[Error] Failed to send response: " + e.getMessage());
+      exchange.close();
+    }
+  }
+
+  // Answer a synchronous /make-ai-move once its job has finished
+  public static void sendMoveResult(HttpExchange exchange, AIJob job) {
+    try {
+      if (job.getStatus() == AIJob.Status.REJECTED) {
+        exchange
+          .getResponseHeaders()
+          .set("Retry-After", String.valueOf(job.getRetryAfterSeconds()));
+      }
+      int statusCode =
+        switch (job.getStatus()) {
+          case DONE -> 200;
+          case REJECTED -> 503;
+          default -> 400;
+        };
+      GameResponse<?> response = job.getMoveResponse();
+      if (job.getStatus() == AIJob.Status.DONE) {
+        response = new GameResponse<>(
+          response.isSuccess(),
+          response.getMessage(),
+          Map.of("budgetScale", job.roundedBudgetScale())
+        );
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      sendResponse(exchange, statusCode, formatGameResponse(response));
+    } catch (IOException e) {
+      System.out.println("[Error] Failed to send AI move: " + e.getMessage());
+      exchange.close();
+    }
+  }
+
+  // Answer an /ai-move-result poll with the job's current state
+  public static void sendJobStatus(HttpExchange exchange, AIJob job) {
+    try {
+      int statusCode;
+      GameResponse<Map<String, Object>> response;
+      switch (job.getStatus()) {
+        case QUEUED -> {
+          statusCode = 202;
+          response = new GameResponse<>(true, "AI move pending", job.toData());
+        }
+        case REJECTED -> {
+          statusCode = 503;
+          exchange
+            .getResponseHeaders()
+            .set("Retry-After", String.valueOf(job.getRetryAfterSeconds()));
+          response = new GameResponse<>(false, job.getMoveResponse().getMessage(), job.toData());
+        }
+        default -> {
+          statusCode = 200;
+          GameResponse<Void> move = job.getMoveResponse();
+          response = new GameResponse<>(move.isSuccess(), move.getMessage(), job.toData());
+        }
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      sendResponse(exchange, statusCode, formatGameResponse(response));
+    } catch (IOException e) {
+      System.out.println("[Error] Failed to send AI job status: " + e.getMessage());
+      exchange.close();
+    }
+  }
+
+  // Format JSON responses with generic data
+  public static <T> byte[] formatGameResponse(GameResponse<T> response) {
+    JsonWriter json = WRITER.get().reset();
+    json.beginObject();
+    json.name("success").value(response.isSuccess());
+    json.name("message").value(response.getMessage());
+    if (response.getData() != null) {
+      json.name("data");
+      writeValue(json, response.getData());
+    }
+    json.endObject();
+    return json.toByteArray();
+  }
+
+  // Standalone JSON document for a payload (e.g. SSE event data)
+  static byte[] formatValue(Object value) {
+    JsonWriter json = WRITER.get().reset();
+    writeValue(json, value);
+    return json.toByteArray();
+  }
+
+  private static void writeValue(JsonWriter json, Object value) {
+    if (value == null) {
+      json.nullValue();
+    } else if (value instanceof Map<?, ?> map) {
+      json.beginObject();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        json.name(String.valueOf(entry.getKey()));
+        writeValue(json, entry.getValue());
+      }
+      json.endObject();
+    } else if (value instanceof List<?> list) {
+      json.beginArray();
+      for (Object item : list) {
+        writeValue(json, item);
+      }
+      json.endArray();
+    } else if (value instanceof int[][] rows) {
+      json.value(rows);
+    } else if (value instanceof int[] row) {
+      json.value(row);
+    } else if (value instanceof Integer || value instanceof Long
+        || value instanceof Short || value instanceof Byte) {
+      json.value(((Number) value).longValue());
+    } else if (value instanceof Number number) {
+      json.value(number.doubleValue());
+    } else if (value instanceof Boolean bool) {
+      json.value(bool);
+    } else {
+      json.value(value.toString());
+    }
+  }
+
+  // Parse "a=1&b=2" style query strings (used by GET endpoints such as SSE)
+  public static Map<String, String> parseQuery(URI uri) {
+    Map<String, String> params = new HashMap<>();
+    String query = uri.getRawQuery();
+    if (query == null || query.isEmpty()) {
+      return params;
+    }
+    for (String pair : query.split("&")) {
+      int eq = pair.indexOf('=');
+      if (eq > 0) {
+        params.put(
+          URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+          URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8)
+        );
+      }
+    }
+    return params;
+  }
+
+  // Content negotiation for board and move payloads; JSON unless asked otherwise
+  public static boolean acceptsBinary(HttpExchange exchange) {
+    String accept = exchange.getRequestHeaders().getFirst("Accept");
+    return accept != null && accept.contains(BinaryCodec.CONTENT_TYPE);
+  }
+
+  // Validator for a session's poll response at one position version
+  public static String etag(GameSession session, long version, String variant) {
+    return "\"" + session.getConnectionId() + "-" + version + "-" + variant + "\"";
+  }
+
+  public static boolean notModified(HttpExchange exchange, String etag) {
+    String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+    return ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag));
+  }
+
+  /**
+   * Answers a poll straight from the session's cached body when the position
+   * has not changed since it was encoded: 304 if the client already has it.
+   *
+   * @return false if nothing current is cached and the caller must build it
+   */
+  public static boolean sendCached(
+    HttpExchange exchange,
+    GameSession session,
+    String variant,
+    String contentType
+  ) throws IOException {
+    GameSession.CachedBody cached = session.getCachedBody(variant);
+    if (cached == null) {
+      return false;
+    }
+    String etag = etag(session, cached.version(), variant);
+    exchange.getResponseHeaders().set("ETag", etag);
+    if (notModified(exchange, etag)) {
+      sendResponse(exchange, 304, new byte[0]);
+      return true;
+    }
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    sendResponse(exchange, 200, cached.body());
+    return true;
+  }
+
+  // Get connection ID
+  public static String getConnectionId(Map<String, String> params) {
+    String connectionId = params.get("connection-id");
+    if (connectionId == null) {
+      throw new IllegalArgumentException("Missing connection-id");
+    }
+    return connectionId;
+  }
+}
@@ -0,0 +1,143 @@
+package main.java.com.checkers.api;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import main.java.com.checkers.util.LatencyWindow;
+
+/**
+ * Feedback controller that holds the p95 latency of AI moves at a target per
+ * difficulty by scaling the search budget between a floor and the full
+ * budget.
+ *
+ * Every interval it looks at the moves finished since the last tick (queue
+ * wait plus search, as the client sees it) and the system load average per
+ * core. If the p95 is over target, or the machine is overloaded, the scale is
+ * cut in proportion to the overshoot. Once latency is comfortably under
+ * target and the load has come down, the budget grows back a step per tick.
+ */
+public class LoadController {
+
+  private static final String[] NAMES = { "easy", "medium", "hard" };
+  // Latency must be under this fraction of target before the budget grows
+  private static final double HEADROOM = 0.8;
+  // Largest cut in one tick, and the cut for load alone
+  private static final double MAX_CUT = 0.5;
+  private static final double LOAD_CUT = 0.9;
+
+  private final long[] targetMs;
+  private final double floor;
+  private final double step;
+  private final double maxLoadPerCore;
+  private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+  private final int cores = Runtime.getRuntime().availableProcessors();
+  private final ScheduledExecutorService ticker;
+
+  private final LatencyWindow[] current = new LatencyWindow[NAMES.length];
+  private final double[] scale = new double[NAMES.length];
+  private final long[] lastP95 = new long[NAMES.length];
+  private final long[] cuts = new long[NAMES.length];
+  private final long[] raises = new long[NAMES.length];
+  private volatile double loadPerCore;
+
+  /**
+   * @param targetMs       p95 target for EASY, MEDIUM and HARD moves
+   * @param floor          smallest budget scale
+   * @param step           budget regained per tick while under target
+   * @param maxLoadPerCore load average per core treated as overload
+   */
+  public LoadController(long[] targetMs, double floor, double step, double maxLoadPerCore, long intervalMillis) {
+    this.targetMs = targetMs.clone();
+    this.floor = Math.min(1.0, Math.max(0.01, floor));
+    this.step = step;
+    this.maxLoadPerCore = maxLoadPerCore;
+    for (int i = 0; i < NAMES.length; i++) {
+      current[i] = new LatencyWindow(256);
+      scale[i] = 1.0;
+    }
+    this.ticker =
+      Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ai-load-controller");
+        t.setDaemon(true);
+        return t;
+      });
+    ticker.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Records the latency of a finished AI move.
+   */
+  public void record(int difficulty, long millis) {
+    LatencyWindow window;
+    synchronized (this) {
+      window = current[index(difficulty)];
+    }
+    window.record(millis);
+  }
+
+  /**
+   * @return the budget scale (floor to 1) for the next search at this
+   *         difficulty
+   */
+  public synchronized double getScale(int difficulty) {
+    return scale[index(difficulty)];
+  }
+
+  private void tick() {
+    double average = os.getSystemLoadAverage(); // negative where unsupported
+    double load = (average < 0) ? 0 : average / cores;
+    loadPerCore = load;
+    boolean overloaded = load > maxLoadPerCore;
+
+    synchronized (this) {
+      for (int i = 0; i < NAMES.length; i++) {
+        LatencyWindow window = current[i];
+        current[i] = new LatencyWindow(256);
+        long p95 = (window.getCount() > 0) ? window.percentile(95) : -1;
+        if (p95 >= 0) {
+          lastP95[i] = p95;
+        }
+
+        if (p95 > targetMs[i] || (overloaded && p95 >= 0)) {
+          double cut = (p95 > targetMs[i]) ? (double) targetMs[i] / p95 : LOAD_CUT;
+          scale[i] = Math.max(floor, scale[i] * Math.max(MAX_CUT, cut));
+          cuts[i]++;
+        } else if (!overloaded && p95 < targetMs[i] * HEADROOM && scale[i] < 1.0) {
+          // No moves this tick (p95 = -1) also counts as calm
+          scale[i] = Math.min(1.0, scale[i] + step);
+          raises[i]++;
+        }
+      }
+    }
+  }
+
+  private static int index(int difficulty) {
+    if (difficulty < AIScheduler.EASY || difficulty > AIScheduler.HARD) {
+      return AIScheduler.HARD - 1;
+    }
+    return difficulty - 1;
+  }
+
+  public synchronized Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("loadPerCore", Math.round(loadPerCore * 100) / 100.0);
+    for (int i = 0; i < NAMES.length; i++) {
+      Map<String, Object> d = new LinkedHashMap<>();
+      d.put("scale", Math.round(scale[i] * 1000) / 1000.0);
+      d.put("targetP95Ms", targetMs[i]);
+      d.put("lastP95Ms", lastP95[i]);
+      d.put("cuts", cuts[i]);
+      d.put("raises", raises[i]);
+      stats.put(NAMES[i], d);
+    }
+    return stats;
+  }
+
+  public void shutdown() {
+    ticker.shutdownNow();
+  }
+}
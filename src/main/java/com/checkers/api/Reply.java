@@ -0,0 +1,45 @@
+package main.java.com.checkers.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import main.java.com.checkers.util.BinaryCodec;
+
+/**
+ * An HTTP response computed inside a session's mailbox and written
+ * afterwards on a request thread.
+ */
+final class Reply {
+
+  final int statusCode;
+  final String contentType;
+  final byte[] body;
+  final Map<String, String> headers = new LinkedHashMap<>();
+
+  private Reply(int statusCode, String contentType, byte[] body) {
+    this.statusCode = statusCode;
+    this.contentType = contentType;
+    this.body = body;
+  }
+
+  static Reply text(int statusCode, String body) {
+    return new Reply(statusCode, null, body.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static Reply json(int statusCode, byte[] body) {
+    return new Reply(statusCode, "application/json", body);
+  }
+
+  static Reply binary(int statusCode, byte[] body) {
+    return new Reply(statusCode, BinaryCodec.CONTENT_TYPE, body);
+  }
+
+  static Reply notModified(String etag) {
+    return new Reply(304, null, new byte[0]).header("ETag", etag);
+  }
+
+  Reply header(String name, String value) {
+    headers.put(name, value);
+    return this;
+  }
+}
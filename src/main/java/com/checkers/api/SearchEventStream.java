@@ -0,0 +1,122 @@
+package main.java.com.checkers.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import main.java.com.checkers.ai.SearchSnapshot;
+
+/**
+ * Server-Sent Events stream for one AI job.
+ *
+ * Every interval the stream samples the session's latest search snapshot
+ * (an immutable object the search publishes on its own) and writes a
+ * "progress" event when it has changed. When the job finishes a final
+ * "move" event with the chosen move, board and game status is sent right
+ * away and the stream is closed. The search loop never waits on a client.
+ */
+class SearchEventStream implements Runnable {
+
+  private static final long HEARTBEAT_MS = 15000;
+
+  private final HttpExchange exchange;
+  private final GameSession session;
+  private final AIJob job;
+  private final OutputStream out;
+  private ScheduledFuture<?> ticker;
+  private int lastIterations = -1;
+  private long lastWriteAt;
+  private boolean closed;
+
+  private SearchEventStream(HttpExchange exchange, GameSession session, AIJob job) {
+    this.exchange = exchange;
+    this.session = session;
+    this.job = job;
+    this.out = exchange.getResponseBody();
+  }
+
+  /**
+   * Sends the SSE headers and starts sampling the job every intervalMs.
+   */
+  static void open(
+    HttpExchange exchange,
+    GameSession session,
+    AIJob job,
+    long intervalMs,
+    ScheduledExecutorService scheduler
+  ) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    exchange.getResponseHeaders().set("X-Accel-Buffering", "no"); // let nginx flush events
+    exchange.sendResponseHeaders(200, 0);
+
+    SearchEventStream stream = new SearchEventStream(exchange, session, job);
+    synchronized (stream) {
+      stream.send("queued", job.toData());
+      stream.ticker =
+        scheduler.scheduleAtFixedRate(stream, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    // Deliver the final event as soon as the move is decided, not on the next tick
+    job.getFuture().thenRunAsync(stream, scheduler);
+  }
+
+  @Override
+  public synchronized void run() {
+    if (closed) {
+      return;
+    }
+    try {
+      if (job.isDone()) {
+        if (job.getStatus() == AIJob.Status.DONE) {
+          send("move", job.toData());
+        } else {
+          send(
+            "error",
+            Map.of(
+              "status", job.getStatus().name().toLowerCase(),
+              "message", job.getMoveResponse().getMessage()
+            )
+          );
+        }
+        close();
+        return;
+      }
+
+      // Skip the previous search's final snapshot while this job is still queued
+      SearchSnapshot snapshot = session.getSearchSnapshot();
+      if (snapshot != null && !snapshot.isDone() && snapshot.getIterations() != lastIterations) {
+        lastIterations = snapshot.getIterations();
+        send("progress", snapshot.toData());
+      } else if (System.currentTimeMillis() - lastWriteAt > HEARTBEAT_MS) {
+        write(": keep-alive\n\n");
+      }
+    } catch (IOException e) {
+      // Client went away
+      close();
+    }
+  }
+
+  private void send(String event, Map<String, Object> data) throws IOException {
+    out.write(("event: " + event + "\ndata: ").getBytes(StandardCharsets.US_ASCII));
+    out.write(HttpUtils.formatValue(data));
+    write("\n\n");
+  }
+
+  private void write(String frame) throws IOException {
+    out.write(frame.getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    lastWriteAt = System.currentTimeMillis();
+  }
+
+  private void close() {
+    closed = true;
+    if (ticker != null) {
+      ticker.cancel(false);
+    }
+    exchange.close();
+  }
+}
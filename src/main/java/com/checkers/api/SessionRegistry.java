@@ -0,0 +1,247 @@
+package main.java.com.checkers.api;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import main.java.com.checkers.persist.GameArchive;
+import main.java.com.checkers.persist.SessionJournal;
+import main.java.com.checkers.persist.SessionState;
+import main.java.com.checkers.util.TimingWheel;
+
+/**
+ * Live game sessions keyed by connection id, with idle eviction and a hard cap.
+ *
+ * Every session has exactly one timer on a hierarchical timing wheel. Lookups
+ * only stamp the session's last-activity time; when the timer fires the
+ * session is evicted if it really has been idle for the whole TTL, otherwise
+ * the timer is re-armed for the remaining time. No periodic scan of the map.
+ */
+public class SessionRegistry {
+
+  // Upper bounds (minutes) of the session-age histogram buckets; the last bucket is open
+  private static final long[] AGE_BUCKETS_MIN = { 1, 5, 15, 60, 240, 1440 };
+  private static final String[] AGE_LABELS = {
+    "<1m", "<5m", "<15m", "<1h", "<4h", "<24h", ">=24h",
+  };
+
+  /**
+   * Thrown when a new session would exceed the configured cap.
+   */
+  public static class CapacityException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CapacityException(String message) {
+      super(message);
+    }
+  }
+
+  private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+  private final TimingWheel<GameSession> wheel;
+  private final long idleTtlMillis;
+  private final int maxSessions;
+  private final Executor sessionPool;
+  private final SessionJournal journal;
+  private final GameArchive archive;
+
+  // Slots taken against the cap, reserved before a session is added
+  private final AtomicInteger reserved = new AtomicInteger();
+  private final AtomicLong created = new AtomicLong();
+  private final AtomicLong evicted = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLongArray evictedAges = new AtomicLongArray(AGE_LABELS.length);
+
+  public SessionRegistry(
+    long idleTtlMillis,
+    int maxSessions,
+    long tickMillis,
+    Executor sessionPool
+  ) {
+    this(idleTtlMillis, maxSessions, tickMillis, sessionPool, null, null);
+  }
+
+  /**
+   * @param journal records creation and eviction, and is handed to every
+   *                session; null to keep sessions in memory only
+   * @param archive receives every finished game; may be null
+   */
+  public SessionRegistry(
+    long idleTtlMillis,
+    int maxSessions,
+    long tickMillis,
+    Executor sessionPool,
+    SessionJournal journal,
+    GameArchive archive
+  ) {
+    this.idleTtlMillis = idleTtlMillis;
+    this.maxSessions = maxSessions;
+    this.sessionPool = sessionPool;
+    this.journal = journal;
+    this.archive = archive;
+    this.wheel = new TimingWheel<>(tickMillis, this::onTimeout);
+    this.wheel.start("session-expiry");
+  }
+
+  /**
+   * Creates and registers a new session.
+   *
+   * @throws CapacityException if the live-session cap has been reached
+   */
+  public GameSession create() {
+    if (reserved.incrementAndGet() > maxSessions) {
+      reserved.decrementAndGet();
+      rejected.incrementAndGet();
+      throw new CapacityException("Server is at its session limit");
+    }
+    String connectionId;
+    GameSession session;
+    do {
+      connectionId = UUID.randomUUID().toString().substring(0, 12);
+      session = new GameSession(connectionId, sessionPool, journal, archive, System.currentTimeMillis());
+    } while (sessions.putIfAbsent(connectionId, session) != null);
+
+    created.incrementAndGet();
+    session.record(SessionJournal.Event.CREATE);
+    wheel.schedule(session, idleTtlMillis);
+    return session;
+  }
+
+  /**
+   * Re-registers sessions read back from the journal at startup. The cap is
+   * not applied: these games were already admitted. Each gets a full idle
+   * TTL from now.
+   *
+   * @return the number of sessions restored
+   */
+  public int restore(List<SessionState> states) {
+    int restored = 0;
+    for (SessionState state : states) {
+      GameSession session = new GameSession(state.connectionId(), sessionPool, journal, archive, state.createdAt());
+      if (!session.restore(state).isSuccess()) {
+        System.out.println("[Warning] Could not restore session " + state.connectionId());
+        continue;
+      }
+      if (sessions.putIfAbsent(state.connectionId(), session) == null) {
+        reserved.incrementAndGet();
+        wheel.schedule(session, idleTtlMillis);
+        restored++;
+      }
+    }
+    return restored;
+  }
+
+  /**
+   * Looks up a session and records activity on it.
+   *
+   * @return the session, or null if it does not exist or was evicted
+   */
+  public GameSession get(String connectionId) {
+    if (connectionId == null) {
+      return null;
+    }
+    GameSession session = sessions.get(connectionId);
+    if (session != null) {
+      session.touch();
+    }
+    return session;
+  }
+
+  /**
+   * Drops a session outright, e.g. one the server made for itself. Its
+   * pending timer finds it gone and does nothing.
+   */
+  public void remove(String connectionId) {
+    GameSession session = sessions.remove(connectionId);
+    if (session != null) {
+      reserved.decrementAndGet();
+      close(session);
+    }
+  }
+
+  public boolean contains(String connectionId) {
+    return connectionId != null && sessions.containsKey(connectionId);
+  }
+
+  public int size() {
+    return sessions.size();
+  }
+
+  private void onTimeout(GameSession session) {
+    long idle = System.currentTimeMillis() - session.getLastActivity();
+    if (idle < idleTtlMillis) {
+      wheel.schedule(session, idleTtlMillis - idle);
+      return;
+    }
+    if (sessions.remove(session.getConnectionId(), session)) {
+      reserved.decrementAndGet();
+      evicted.incrementAndGet();
+      evictedAges.incrementAndGet(ageBucket(System.currentTimeMillis() - session.getCreatedAt()));
+      close(session);
+      System.out.println(session.getConnectionId() + " evicted after " + (idle / 1000) + "s idle");
+    }
+  }
+
+  // The EVICT record goes through the session's mailbox so it follows
+  // anything still running there, such as an AI move; whatever a request
+  // that already held the session submits afterwards is not journaled.
+  private void close(GameSession session) {
+    session.submit(() -> {
+      session.close();
+      if (journal != null) {
+        journal.appendEvict(session.getConnectionId());
+      }
+      return null;
+    });
+  }
+
+  private static int ageBucket(long ageMillis) {
+    long minutes = ageMillis / 60000;
+    for (int i = 0; i < AGE_BUCKETS_MIN.length; i++) {
+      if (minutes < AGE_BUCKETS_MIN[i]) {
+        return i;
+      }
+    }
+    return AGE_BUCKETS_MIN.length;
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("live", sessions.size());
+    stats.put("max", maxSessions);
+    stats.put("idleTtlMs", idleTtlMillis);
+    stats.put("created", created.get());
+    stats.put("evicted", evicted.get());
+    stats.put("rejectedAtCap", rejected.get());
+    stats.put("timers", wheel.getPendingCount());
+
+    // Lifetime of evicted sessions, maintained incrementally
+    Map<String, Object> evictedHistogram = new LinkedHashMap<>();
+    for (int i = 0; i < AGE_LABELS.length; i++) {
+      evictedHistogram.put(AGE_LABELS[i], evictedAges.get(i));
+    }
+    stats.put("evictedAge", evictedHistogram);
+
+    // Age of live sessions; only computed when metrics are requested
+    long[] live = new long[AGE_LABELS.length];
+    long now = System.currentTimeMillis();
+    for (GameSession session : sessions.values()) {
+      live[ageBucket(now - session.getCreatedAt())]++;
+    }
+    Map<String, Object> liveHistogram = new LinkedHashMap<>();
+    for (int i = 0; i < AGE_LABELS.length; i++) {
+      liveHistogram.put(AGE_LABELS[i], live[i]);
+    }
+    stats.put("liveAge", liveHistogram);
+    return stats;
+  }
+
+  public void shutdown() {
+    wheel.stop();
+  }
+}
@@ -0,0 +1,165 @@
+package main.java.com.checkers.api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.ai.SearchSnapshot;
+import main.java.com.checkers.game.Checkers;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.util.ServerConfig;
+
+/**
+ * Exercises the hot paths after startup so the first real players do not
+ * pay for interpreted code.
+ *
+ * Each round plays a few MEDIUM searches from the opening through
+ * {@link Checkers} and the MCTS, then one short game against the server's
+ * own handlers over loopback. Rounds repeat until the search rate of two
+ * consecutive rounds agrees within WARMUP_TOLERANCE, or WARMUP_MAX_MS runs
+ * out. The server is listening throughout but reports not-ready on /ready.
+ */
+public class WarmUp {
+
+  private static final int SEARCH_DIFFICULTY = 2;
+
+  private final String baseUrl;
+  private final long maxMillis;
+  private final int minRounds;
+  private final int maxRounds;
+  private final int pliesPerRound;
+  private final double tolerance;
+  private final HttpClient client = HttpClient.newBuilder()
+    .connectTimeout(Duration.ofSeconds(5))
+    .build();
+
+  private int requests;
+  private int failedRequests;
+  private final List<String> sessionIds = new ArrayList<>();
+
+  public WarmUp(String host, int port, ServerConfig config) {
+    String target = (host.equals("0.0.0.0") || host.isEmpty()) ? "localhost" : host;
+    this.baseUrl = "http://" + target + ":" + port;
+    this.maxMillis = config.getLong("WARMUP_MAX_MS", 30000);
+    this.minRounds = config.getInt("WARMUP_MIN_ROUNDS", 3);
+    this.maxRounds = config.getInt("WARMUP_MAX_ROUNDS", 20);
+    this.pliesPerRound = config.getInt("WARMUP_PLIES", 6);
+    this.tolerance = config.getDouble("WARMUP_TOLERANCE", 0.10);
+  }
+
+  /**
+   * Runs until warm or out of time.
+   *
+   * @return a summary for /ready and the log
+   */
+  public Map<String, Object> run() {
+    // Cached searches would skip the very code being warmed up
+    SearchCache cache = SearchCache.shared();
+    boolean cacheEnabled = cache.isEnabled();
+    cache.setEnabled(false);
+    try {
+      return warmUp();
+    } finally {
+      cache.setEnabled(cacheEnabled);
+    }
+  }
+
+  private Map<String, Object> warmUp() {
+    long start = System.currentTimeMillis();
+    List<Long> rates = new ArrayList<>();
+    boolean stable = false;
+    while (rates.size() < maxRounds && System.currentTimeMillis() - start < maxMillis) {
+      rates.add(searchRound());
+      selfServedGame();
+      int n = rates.size();
+      if (n >= minRounds && n >= 2) {
+        long previous = rates.get(n - 2);
+        long last = rates.get(n - 1);
+        if (Math.abs(last - previous) <= tolerance * Math.max(previous, last)) {
+          stable = true;
+          break;
+        }
+      }
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("rounds", rates.size());
+    report.put("stable", stable);
+    report.put("elapsedMs", System.currentTimeMillis() - start);
+    report.put("searchIterationsPerSec", rates);
+    report.put("requests", requests);
+    report.put("failedRequests", failedRequests);
+    return report;
+  }
+
+  // @return MCTS iterations per second over the round
+  private long searchRound() {
+    Checkers game = new Checkers();
+    game.intializeBoard();
+    game.initializeGame(SEARCH_DIFFICULTY, CheckersData.RED);
+    long iterations = 0;
+    long roundStart = System.nanoTime();
+    for (int ply = 0; ply < pliesPerRound && game.isGameInProgress(); ply++) {
+      game.performAIMove();
+      SearchSnapshot snapshot = game.getSearchSnapshot();
+      if (snapshot != null) {
+        iterations += snapshot.getIterations();
+      }
+    }
+    long nanos = Math.max(1, System.nanoTime() - roundStart);
+    return iterations * 1_000_000_000L / nanos;
+  }
+
+  // Drives the request handlers, session mailbox and AI job path
+  private void selfServedGame() {
+    String created = call("PUT", "/", "{}");
+    String marker = "\"message\":\"";
+    int at = (created == null) ? -1 : created.indexOf(marker);
+    if (at < 0) {
+      return;
+    }
+    at += marker.length();
+    String connectionId = created.substring(at, created.indexOf('"', at));
+    sessionIds.add(connectionId);
+    String id = "\"connection-id\":\"" + connectionId + "\"";
+
+    call("PUT", "/start", "{" + id + ",\"difficulty\":1,\"playerColor\":1}");
+    call("POST", "/get-board", "{" + id + "}");
+    call("PUT", "/game-status", "{" + id + "}");
+    call("PUT", "/legal-moves", "{" + id + ",\"row\":5,\"col\":1}");
+    call("POST", "/turn", "{" + id + ",\"f-row\":5,\"f-col\":1,\"t-row\":4,\"t-col\":0}");
+    call("POST", "/get-board", "{" + id + "}");
+    call("POST", "/stop", "{" + id + "}");
+  }
+
+  /**
+   * Sessions created by the self-served games, for the server to drop.
+   */
+  public List<String> getSessionIds() {
+    return sessionIds;
+  }
+
+  private String call(String method, String path, String body) {
+    requests++;
+    try {
+      HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .timeout(Duration.ofSeconds(30))
+        .method(method, HttpRequest.BodyPublishers.ofString(body))
+        .build();
+      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != 200) {
+        failedRequests++;
+      }
+      return response.body();
+    } catch (Exception e) {
+      failedRequests++;
+      return null;
+    }
+  }
+}
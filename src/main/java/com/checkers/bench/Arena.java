@@ -0,0 +1,121 @@
+package main.java.com.checkers.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import main.java.com.checkers.ai.MonteCarloTreeSearch;
+import main.java.com.checkers.ai.NetworkWeights;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.ai.SearchSnapshot;
+import main.java.com.checkers.game.Checkers;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+
+/**
+ * Plays the network (PUCT) search against the rollout search at the same
+ * time per move, alternating colors, and reports results and search rates.
+ *
+ * The rollout engine is built the way the server builds it. Games still
+ * running after maxPlies are scored as draws. With msPerMove 0 both engines
+ * use their iteration counts for the difficulty instead of a time budget.
+ *
+ * Usage: Arena [games] [msPerMove] [difficulty] [weights file] [maxPlies]
+ */
+public class Arena {
+
+  private static final int NETWORK = 0;
+  private static final int ROLLOUT = 1;
+  private static final String[] NAMES = { "network", "rollout" };
+
+  public static void main(String[] args) throws Exception {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    long msPerMove = args.length > 1 ? Long.parseLong(args[1]) : 100;
+    int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+    NetworkWeights weights = (args.length > 3 && Files.exists(Path.of(args[3])))
+      ? NetworkWeights.load(Path.of(args[3]))
+      : NetworkWeights.material(64, 32);
+    int maxPlies = args.length > 4 ? Integer.parseInt(args[4]) : 150;
+    System.out.printf(
+      "games=%d msPerMove=%d difficulty=%d network=%dx%d maxPlies=%d%n",
+      games, msPerMove, difficulty, weights.getHidden1(), weights.getHidden2(), maxPlies
+    );
+    SearchCache.shared().setEnabled(false);
+
+    long[] wins = new long[2];
+    long draws = 0;
+    long[] moves = new long[2];
+    long[] nanos = new long[2];
+    long[] iterations = new long[2];
+
+    for (int game = 0; game < games; game++) {
+      // The network plays RED in even games
+      int networkColor = (game % 2 == 0) ? CheckersData.RED : CheckersData.BLACK;
+      MonteCarloTreeSearch[] engines = {
+        new MonteCarloTreeSearch(networkColor, difficulty, weights),
+        new MonteCarloTreeSearch(opponent(networkColor), difficulty, null),
+      };
+      if (msPerMove > 0) {
+        for (MonteCarloTreeSearch engine : engines) {
+          engine.setMaxIterations(Integer.MAX_VALUE);
+          engine.setTimeBudgetMillis(msPerMove);
+        }
+      }
+
+      Checkers setup = new Checkers();
+      setup.intializeBoard();
+      CheckersData board = setup.getCheckersData();
+      int side = CheckersData.RED;
+      int winner = 0;
+      int plies = 0;
+      for (; plies < maxPlies; plies++) {
+        CheckersMove[] legal = board.getLegalMovesMap(side).values().stream()
+          .flatMap(Collection::stream)
+          .filter(move -> move != null && move.getSize() > 1)
+          .toArray(CheckersMove[]::new);
+        if (legal.length == 0) {
+          winner = opponent(side);
+          break;
+        }
+        int who = (side == networkColor) ? NETWORK : ROLLOUT;
+        MonteCarloTreeSearch engine = engines[who];
+        engine.setCheckersData(board.clone(), side);
+        long start = System.nanoTime();
+        CheckersMove move = engine.makeMove(legal);
+        nanos[who] += System.nanoTime() - start;
+        moves[who]++;
+        SearchSnapshot snapshot = engine.getLatestSnapshot();
+        iterations[who] += (snapshot != null) ? snapshot.getIterations() : 0;
+        board.applyMove(move);
+        side = opponent(side);
+      }
+
+      String result;
+      if (winner == 0) {
+        draws++;
+        result = "draw";
+      } else {
+        int who = (winner == networkColor) ? NETWORK : ROLLOUT;
+        wins[who]++;
+        result = NAMES[who] + " wins";
+      }
+      System.out.printf(
+        "game %d: network plays %s, %s after %d plies%n",
+        game + 1, (networkColor == CheckersData.RED) ? "RED" : "BLACK", result, plies
+      );
+    }
+
+    System.out.printf("%nnetwork %d - rollout %d, draws %d%n", wins[NETWORK], wins[ROLLOUT], draws);
+    for (int who = 0; who < 2; who++) {
+      double ms = moves[who] == 0 ? 0 : nanos[who] / 1e6 / moves[who];
+      double perMove = moves[who] == 0 ? 0 : (double) iterations[who] / moves[who];
+      System.out.printf(
+        "%-8s %.1f ms/move  %.0f iterations/move  %.0f iterations/s%n",
+        NAMES[who], ms, perMove, (ms == 0) ? 0 : perMove * 1000 / ms
+      );
+    }
+  }
+
+  private static int opponent(int side) {
+    return (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+  }
+}
@@ -0,0 +1,141 @@
+package main.java.com.checkers.bench;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import main.java.com.checkers.ai.BatchEvaluator;
+import main.java.com.checkers.ai.MonteCarloTreeSearch;
+import main.java.com.checkers.ai.NetworkWeights;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.ai.SearchSnapshot;
+import main.java.com.checkers.game.Checkers;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+
+/**
+ * Runs the same concurrent network searches with leaves evaluated in each
+ * search and through a shared {@link BatchEvaluator} at growing batch
+ * limits, and reports leaf throughput and per-move latency for each.
+ *
+ * Every search plays its own game against itself, starting with a few
+ * random moves so the searches see different positions.
+ *
+ * Usage: BatchBench [searches] [movesPerSearch] [difficulty] [maxWaitMicros]
+ *        [weights file]
+ */
+public class BatchBench {
+
+  public static void main(String[] args) throws Exception {
+    int searches = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    int moves = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+    long maxWaitMicros = args.length > 3 ? Long.parseLong(args[3]) : 200;
+    NetworkWeights weights = (args.length > 4)
+      ? NetworkWeights.load(Path.of(args[4]))
+      : NetworkWeights.material(64, 32);
+    System.out.printf(
+      "searches=%d moves=%d difficulty=%d maxWait=%dus network=%dx%d cpus=%d%n",
+      searches, moves, difficulty, maxWaitMicros, weights.getHidden1(), weights.getHidden2(),
+      Runtime.getRuntime().availableProcessors()
+    );
+    SearchCache.shared().setEnabled(false);
+
+    // Warm the JIT on both paths before measuring
+    run(weights, searches, Math.max(2, moves / 4), difficulty, null);
+    run(weights, searches, Math.max(2, moves / 4), difficulty, new BatchEvaluator(weights, searches, maxWaitMicros));
+
+    System.out.printf("%n%-10s %10s %10s %10s %10s %10s  %s%n", "mode", "leaves/s", "meanBatch", "ms/move", "p95 ms", "wait us", "evaluation alone, by batch size");
+    report("direct", run(weights, searches, moves, difficulty, null), null);
+    for (int size = 1; size <= searches; size *= 2) {
+      BatchEvaluator batcher = new BatchEvaluator(weights, size, maxWaitMicros);
+      report("batch " + size, run(weights, searches, moves, difficulty, batcher), batcher);
+    }
+  }
+
+  private record Result(long leaves, double seconds, long[] moveNanos) {}
+
+  private static Result run(
+    NetworkWeights weights,
+    int searches,
+    int moves,
+    int difficulty,
+    BatchEvaluator batcher
+  ) throws InterruptedException {
+    long[] leaves = new long[searches];
+    long[][] moveNanos = new long[searches][moves];
+    List<Thread> threads = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int s = 0; s < searches; s++) {
+      int id = s;
+      Thread thread = new Thread(() -> {
+        MonteCarloTreeSearch engine = new MonteCarloTreeSearch(CheckersData.RED, difficulty, weights);
+        engine.setBatchEvaluator(batcher);
+        Checkers setup = new Checkers();
+        setup.intializeBoard();
+        CheckersData board = setup.getCheckersData();
+        int side = CheckersData.RED;
+        for (int m = 0; m < moves; m++) {
+          CheckersMove[] legal = legal(board, side);
+          if (legal.length == 0) {
+            setup.intializeBoard();
+            board = setup.getCheckersData();
+            side = CheckersData.RED;
+            legal = legal(board, side);
+          }
+          engine.setCheckersData(board.clone(), side);
+          long t0 = System.nanoTime();
+          CheckersMove move = engine.makeMove(legal);
+          moveNanos[id][m] = System.nanoTime() - t0;
+          SearchSnapshot snapshot = engine.getLatestSnapshot();
+          leaves[id] += (snapshot != null) ? snapshot.getIterations() + 1 : 0;
+          if (m < 4) {
+            move = legal[ThreadLocalRandom.current().nextInt(legal.length)];
+          }
+          board.applyMove(move);
+          side = (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+        }
+      }, "bench-search-" + s);
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    return new Result(
+      Arrays.stream(leaves).sum(),
+      seconds,
+      Arrays.stream(moveNanos).flatMapToLong(Arrays::stream).sorted().toArray()
+    );
+  }
+
+  private static void report(String mode, Result result, BatchEvaluator batcher) {
+    long[] nanos = result.moveNanos();
+    double mean = Arrays.stream(nanos).average().orElse(0) / 1e6;
+    double p95 = nanos.length == 0 ? 0 : nanos[(int) Math.min(nanos.length - 1, nanos.length * 0.95)] / 1e6;
+    double meanBatch = 1.0;
+    double wait = 0.0;
+    Object bySize = "";
+    if (batcher != null) {
+      Map<String, Object> stats = batcher.getStats();
+      meanBatch = (Double) stats.get("meanBatch");
+      wait = (Double) stats.get("meanWaitMicros");
+      bySize = stats.get("bySize");
+    }
+    System.out.printf(
+      "%-10s %10.0f %10.2f %10.2f %10.2f %10.1f  %s%n",
+      mode, result.leaves() / result.seconds(), meanBatch, mean, p95, wait, bySize
+    );
+  }
+
+  private static CheckersMove[] legal(CheckersData board, int side) {
+    return board.getLegalMovesMap(side).values().stream()
+      .flatMap(Collection::stream)
+      .filter(move -> move != null && move.getSize() > 1)
+      .toArray(CheckersMove[]::new);
+  }
+}
@@ -0,0 +1,259 @@
+package main.java.com.checkers.bench;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for a running game server.
+ *
+ * Every worker owns one keep-alive connection and one game session and
+ * polls /get-board, /game-status and /legal-moves back to back, like a
+ * client waiting for its turn. Extra idle connections can be held open to
+ * see how the engine copes with many mostly-quiet clients. Run it once per
+ * SERVER_ENGINE against the same host to compare.
+ *
+ * Usage: HttpLoadBench [host] [port] [connections] [seconds] [idleConnections]
+ */
+public class HttpLoadBench {
+
+  private static final String[][] MIX = {
+    { "POST", "/get-board", "" },
+    { "PUT", "/game-status", "" },
+    { "PUT", "/legal-moves", ",\"row\":5,\"col\":1" },
+  };
+
+  public static void main(String[] args) throws Exception {
+    String host = args.length > 0 ? args[0] : "localhost";
+    int port = args.length > 1 ? Integer.parseInt(args[1]) : 9000;
+    int connections = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+    int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+    int idleConnections = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+    String engine = fetchEngine(host, port);
+    System.out.printf(
+      "engine=%s connections=%d idle=%d duration=%ds%n",
+      engine, connections, idleConnections, seconds
+    );
+
+    List<Socket> idle = new ArrayList<>();
+    for (int i = 0; i < idleConnections; i++) {
+      try {
+        idle.add(new Socket(host, port));
+      } catch (IOException e) {
+        System.out.println("idle connection " + i + " failed: " + e.getMessage());
+        break;
+      }
+    }
+
+    AtomicLong errors = new AtomicLong();
+    long[][] samples = new long[connections][];
+    int[] counts = new int[connections];
+    CountDownLatch ready = new CountDownLatch(connections);
+    CountDownLatch go = new CountDownLatch(1);
+    long[] window = new long[2];
+    Thread[] workers = new Thread[connections];
+
+    for (int w = 0; w < connections; w++) {
+      final int id = w;
+      workers[w] = new Thread(() -> {
+        long[] latencies = new long[1 << 16];
+        int n = 0;
+        try (Client client = new Client(host, port)) {
+          String connectionId = client.newGame();
+          ready.countDown();
+          go.await();
+          long deadline = window[1];
+          int step = id;
+          while (System.nanoTime() < deadline) {
+            String[] request = MIX[step++ % MIX.length];
+            String body = "{\"connection-id\":\"" + connectionId + "\"" + request[2] + "}";
+            long start = System.nanoTime();
+            int status = client.call(request[0], request[1], body).status;
+            long elapsed = System.nanoTime() - start;
+            if (status != 200) {
+              errors.incrementAndGet();
+            }
+            if (n == latencies.length) {
+              latencies = Arrays.copyOf(latencies, n * 2);
+            }
+            latencies[n++] = elapsed;
+          }
+        } catch (Exception e) {
+          errors.incrementAndGet();
+          ready.countDown();
+        }
+        samples[id] = latencies;
+        counts[id] = n;
+      }, "bench-" + w);
+      workers[w].start();
+    }
+
+    ready.await();
+    window[0] = System.nanoTime();
+    window[1] = window[0] + seconds * 1_000_000_000L;
+    go.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    long elapsedNanos = System.nanoTime() - window[0];
+
+    int alive = 0;
+    for (Socket socket : idle) {
+      try (Client client = new Client(socket)) {
+        if (client.call("GET", "/metrics", null).status == 200) {
+          alive++;
+        }
+      } catch (IOException e) {
+        // closed by the server
+      }
+    }
+
+    int total = 0;
+    for (int count : counts) {
+      total += count;
+    }
+    long[] all = new long[total];
+    int at = 0;
+    for (int w = 0; w < connections; w++) {
+      if (samples[w] != null) {
+        System.arraycopy(samples[w], 0, all, at, counts[w]);
+        at += counts[w];
+      }
+    }
+    Arrays.sort(all);
+
+    System.out.printf(
+      "requests=%d errors=%d throughput=%.0f req/s%n",
+      total, errors.get(), total / (elapsedNanos / 1e9)
+    );
+    System.out.printf(
+      "latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+      percentile(all, 50), percentile(all, 90), percentile(all, 99),
+      percentile(all, 99.9), total == 0 ? 0 : all[total - 1] / 1e6
+    );
+    if (idleConnections > 0) {
+      System.out.printf("idle connections still served: %d/%d%n", alive, idleConnections);
+    }
+  }
+
+  private static double percentile(long[] sorted, double p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(p / 100 * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+  private static String fetchEngine(String host, int port) throws IOException {
+    try (Client client = new Client(host, port)) {
+      String body = client.call("GET", "/metrics", null).body;
+      int at = body.indexOf("\"engine\":\"");
+      if (at < 0) {
+        return "unknown";
+      }
+      int start = at + "\"engine\":\"".length();
+      return body.substring(start, body.indexOf('"', start));
+    }
+  }
+
+  private record Response(int status, String body) {}
+
+  /**
+   * Minimal blocking HTTP/1.1 client over one keep-alive socket.
+   */
+  private static final class Client implements AutoCloseable {
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final String host;
+
+    Client(String host, int port) throws IOException {
+      this(connect(host, port));
+    }
+
+    Client(Socket socket) throws IOException {
+      this.socket = socket;
+      this.socket.setTcpNoDelay(true);
+      this.in = new BufferedInputStream(socket.getInputStream());
+      this.out = socket.getOutputStream();
+      this.host = socket.getInetAddress().getHostName();
+    }
+
+    private static Socket connect(String host, int port) throws IOException {
+      Socket socket = new Socket();
+      socket.connect(new InetSocketAddress(host, port), 5000);
+      return socket;
+    }
+
+    String newGame() throws IOException {
+      Response created = call("PUT", "/", "{}");
+      String marker = "\"message\":\"";
+      int start = created.body.indexOf(marker) + marker.length();
+      String connectionId = created.body.substring(start, created.body.indexOf('"', start));
+      call(
+        "PUT",
+        "/start",
+        "{\"connection-id\":\"" + connectionId + "\",\"difficulty\":1,\"playerColor\":1}"
+      );
+      return connectionId;
+    }
+
+    Response call(String method, String path, String body) throws IOException {
+      byte[] payload = (body == null) ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+      String head =
+        method + " " + path + " HTTP/1.1\r\nHost: " + host +
+        "\r\nContent-Length: " + payload.length + "\r\n\r\n";
+      out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+      out.write(payload);
+      out.flush();
+
+      String statusLine = readLine();
+      if (statusLine == null) {
+        throw new IOException("connection closed");
+      }
+      int status = Integer.parseInt(statusLine.split(" ")[1]);
+      Map<String, String> headers = new HashMap<>();
+      String line;
+      while ((line = readLine()) != null && !line.isEmpty()) {
+        int colon = line.indexOf(':');
+        headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+      }
+      int length = Integer.parseInt(headers.getOrDefault("content-length", "0"));
+      byte[] data = in.readNBytes(length);
+      return new Response(status, new String(data, StandardCharsets.UTF_8));
+    }
+
+    private String readLine() throws IOException {
+      ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+      int b;
+      while ((b = in.read()) != -1) {
+        if (b == '\n') {
+          byte[] bytes = line.toByteArray();
+          int length = (bytes.length > 0 && bytes[bytes.length - 1] == '\r') ? bytes.length - 1 : bytes.length;
+          return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        }
+        line.write(b);
+      }
+      return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package main.java.com.checkers.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import main.java.com.checkers.api.SessionRegistry;
+import main.java.com.checkers.game.GameManager;
+import main.java.com.checkers.persist.SessionJournal;
+import main.java.com.checkers.persist.SessionState;
+
+/**
+ * Measures the session journal: what a journaled move costs, and how long a
+ * restart takes to bring every session back.
+ *
+ * 1. Writes the history of many sessions (create, start, moves) as fast as
+ *    the writer takes it.
+ * 2. Plays moves from several threads, each waiting for its move to be
+ *    durable as a request does, and reports that wait.
+ * 3. Abandons the journal as a crash would and restores from the segments,
+ *    then closes cleanly and restores again from the snapshot. Both include
+ *    rebuilding the games in a SessionRegistry.
+ *
+ * Usage: JournalBench [dir] [sessions] [movesPerSession] [threads] [fsync]
+ */
+public class JournalBench {
+
+  private static final long NEVER = Long.MAX_VALUE / 2;
+
+  public static void main(String[] args) throws Exception {
+    Path dir = (args.length > 0) ? Path.of(args[0]) : Files.createTempDirectory("journal-bench");
+    int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+    int movesPerSession = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    int threads = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+    boolean fsync = args.length <= 4 || Boolean.parseBoolean(args[4]);
+    if (Files.exists(dir.resolve("snapshot.bin"))) {
+      throw new IllegalArgumentException(dir + " already holds a journal");
+    }
+    System.out.printf(
+      "dir=%s sessions=%d moves/session=%d threads=%d fsync=%b%n",
+      dir, sessions, movesPerSession, threads, fsync
+    );
+
+    int[][] board = new GameManager().getBoard().getData();
+    SessionJournal journal = new SessionJournal(dir, fsync, NEVER, 65536);
+    journal.open();
+
+    // 1. Bulk history
+    long start = System.nanoTime();
+    long last = 0;
+    for (int s = 0; s < sessions; s++) {
+      String id = String.format("s%011d", s);
+      long createdAt = System.currentTimeMillis();
+      journal.append(SessionJournal.Event.CREATE, state(id, createdAt, false, 0, board));
+      journal.append(SessionJournal.Event.START, state(id, createdAt, true, 1, board));
+      for (int m = 0; m < movesPerSession; m++) {
+        last = journal.append(SessionJournal.Event.MOVE, state(id, createdAt, true, m + 2, board));
+      }
+    }
+    journal.whenDurable(last).join();
+    double seconds = (System.nanoTime() - start) / 1e9;
+    long records = (long) sessions * (movesPerSession + 2);
+    System.out.printf(
+      "bulk: records=%d in %.2fs = %.0f records/s, %.2f us/record%n",
+      records, seconds, records / seconds, seconds * 1e6 / records
+    );
+    System.out.println("  " + journal.getStats());
+
+    // 2. Durable moves, one waiting request per thread
+    int movesPerThread = fsync ? 200 : 5000;
+    long[][] latencies = new long[threads][movesPerThread];
+    Thread[] players = new Thread[threads];
+    start = System.nanoTime();
+    for (int t = 0; t < threads; t++) {
+      final int id = t;
+      players[t] = new Thread(() -> {
+        String connectionId = String.format("s%011d", id);
+        for (int m = 0; m < movesPerThread; m++) {
+          long moveStart = System.nanoTime();
+          long seq = journal.append(
+            SessionJournal.Event.MOVE,
+            state(connectionId, 0, true, movesPerSession + 2 + m, board)
+          );
+          journal.whenDurable(seq).join();
+          latencies[id][m] = System.nanoTime() - moveStart;
+        }
+      });
+      players[t].start();
+    }
+    for (Thread player : players) {
+      player.join();
+    }
+    seconds = (System.nanoTime() - start) / 1e9;
+    long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+    System.out.printf(
+      "durable moves: %d in %.2fs = %.0f moves/s, latency us p50=%d p99=%d max=%d%n",
+      all.length, seconds, all.length / seconds,
+      all[all.length / 2] / 1000, all[(int) (all.length * 0.99)] / 1000, all[all.length - 1] / 1000
+    );
+    System.out.println("  " + journal.getStats());
+
+    // 3a. Crash: the old journal is simply abandoned
+    restore(dir, fsync, "restore from segments").close();
+
+    // 3b. Clean shutdown left a snapshot
+    restore(dir, fsync, "restore from snapshot").close();
+  }
+
+  private static SessionJournal restore(Path dir, boolean fsync, String label) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    long start = System.nanoTime();
+    SessionJournal journal = new SessionJournal(dir, fsync, NEVER, 65536);
+    List<SessionState> states = journal.open();
+    long loaded = System.nanoTime();
+    SessionRegistry registry = new SessionRegistry(NEVER, Integer.MAX_VALUE, 1000, pool, journal, null);
+    int restored = registry.restore(states);
+    long done = System.nanoTime();
+    System.gc();
+    Runtime runtime = Runtime.getRuntime();
+    System.out.printf(
+      "%s: sessions=%d journal=%d ms games=%d ms total=%d ms heap=%d MB%n",
+      label, restored, (loaded - start) / 1_000_000, (done - loaded) / 1_000_000, (done - start) / 1_000_000,
+      (runtime.totalMemory() - runtime.freeMemory()) >> 20
+    );
+    System.out.println("  " + journal.getStats());
+    registry.shutdown();
+    pool.shutdown();
+    return journal;
+  }
+
+  private static SessionState state(String id, long createdAt, boolean started, long version, int[][] board) {
+    return new SessionState(id, createdAt, started, started, 1, 1, 1, version, board);
+  }
+}
@@ -0,0 +1,148 @@
+package main.java.com.checkers.bench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import main.java.com.checkers.ai.MonteCarloTreeSearch;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.game.Checkers;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+import main.java.com.checkers.game.PositionHistory;
+
+/**
+ * Playout length distribution of the rollout search with the draw rules off
+ * and on, searching the same positions. The positions come from seeded random
+ * games, stopped after up to maxPlies plies so late king endgames are
+ * included.
+ *
+ * Usage: PlayoutBench [positions] [difficulty] [noProgressPlies] [repetitions]
+ *        [maxPlies]
+ */
+public class PlayoutBench {
+
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int difficulty = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+    int noProgressPlies = args.length > 2 ? Integer.parseInt(args[2]) : PositionHistory.getNoProgressPlies();
+    int repetitions = args.length > 3 ? Integer.parseInt(args[3]) : PositionHistory.getRepetitions();
+    int maxPlies = args.length > 4 ? Integer.parseInt(args[4]) : 120;
+    System.out.printf(
+      "positions=%d difficulty=%d noProgressPlies=%d repetitions=%d maxPlies=%d%n",
+      count, difficulty, noProgressPlies, repetitions, maxPlies
+    );
+    SearchCache.shared().setEnabled(false);
+
+    List<CheckersData> positions = new ArrayList<>();
+    List<Integer> sides = new ArrayList<>();
+    Random random = new Random(42);
+    while (positions.size() < count) {
+      Checkers setup = new Checkers();
+      setup.intializeBoard();
+      CheckersData board = setup.getCheckersData();
+      int side = CheckersData.RED;
+      int plies = random.nextInt(maxPlies);
+      boolean over = false;
+      for (int ply = 0; ply < plies; ply++) {
+        CheckersMove[] legal = legal(board, side);
+        if (legal.length == 0) {
+          over = true;
+          break;
+        }
+        board.applyMove(legal[random.nextInt(legal.length)]);
+        side = opponent(side);
+      }
+      if (!over && legal(board, side).length > 0) {
+        positions.add(board);
+        sides.add(side);
+      }
+    }
+
+    // Warm the JIT on both settings before measuring
+    PositionHistory.setLimits(0, 0);
+    run(positions, sides, difficulty);
+    PositionHistory.setLimits(noProgressPlies, repetitions);
+    run(positions, sides, difficulty);
+
+    PositionHistory.setLimits(0, 0);
+    report("rules off", positions, sides, difficulty, true);
+    PositionHistory.setLimits(noProgressPlies, repetitions);
+    report("rules on", positions, sides, difficulty, false);
+  }
+
+  private static void report(
+    String name,
+    List<CheckersData> positions,
+    List<Integer> sides,
+    int difficulty,
+    boolean header
+  ) {
+    long start = System.nanoTime();
+    MonteCarloTreeSearch[] engines = run(positions, sides, difficulty);
+    double ms = (System.nanoTime() - start) / 1e6;
+
+    long playouts = 0;
+    long plies = 0;
+    long draws = 0;
+    int max = 0;
+    long[] lengths = null;
+    for (MonteCarloTreeSearch engine : engines) {
+      Map<String, Object> stats = engine.getPlayoutStats();
+      long n = (Long) stats.get("playouts");
+      playouts += n;
+      plies += Math.round((Double) stats.get("meanPlies") * n);
+      draws += (Long) stats.get("draws");
+      max = Math.max(max, (Integer) stats.get("maxPlies"));
+      @SuppressWarnings("unchecked")
+      Map<String, Object> buckets = (Map<String, Object>) stats.get("lengths");
+      if (lengths == null) {
+        lengths = new long[buckets.size()];
+      }
+      if (header) {
+        header = false;
+        System.out.printf("%n%-10s %9s %9s %6s %7s %9s", "", "playouts", "meanPlies", "max", "draws", "ms/move");
+        for (String label : buckets.keySet()) {
+          System.out.printf(" %7s", label);
+        }
+        System.out.println();
+      }
+      int b = 0;
+      for (Object value : buckets.values()) {
+        lengths[b++] += (Long) value;
+      }
+    }
+    System.out.printf(
+      "%-10s %9d %9.1f %6d %6.1f%% %9.2f",
+      name, playouts, (double) plies / playouts, max, 100.0 * draws / playouts, ms / positions.size()
+    );
+    for (long n : lengths) {
+      System.out.printf(" %6.2f%%", 100.0 * n / playouts);
+    }
+    System.out.println();
+  }
+
+  private static MonteCarloTreeSearch[] run(List<CheckersData> positions, List<Integer> sides, int difficulty) {
+    MonteCarloTreeSearch[] engines = new MonteCarloTreeSearch[positions.size()];
+    for (int i = 0; i < positions.size(); i++) {
+      CheckersData board = positions.get(i);
+      int side = sides.get(i);
+      engines[i] = new MonteCarloTreeSearch(side, difficulty, null);
+      engines[i].setCheckersData(board.clone(), side);
+      engines[i].makeMove(legal(board, side));
+    }
+    return engines;
+  }
+
+  private static CheckersMove[] legal(CheckersData board, int side) {
+    return board.getLegalMovesMap(side).values().stream()
+      .flatMap(Collection::stream)
+      .filter(move -> move != null && move.getSize() > 1)
+      .toArray(CheckersMove[]::new);
+  }
+
+  private static int opponent(int side) {
+    return (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+  }
+}
@@ -0,0 +1,92 @@
+package main.java.com.checkers.bench;
+
+import java.util.Collection;
+import main.java.com.checkers.ai.MonteCarloTreeSearch;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.game.Checkers;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+
+/**
+ * Self-play of the rollout search with RAVE against the same search without
+ * it, at the difficulty's fixed iteration count, alternating colors. Games
+ * still running after maxPlies count as draws.
+ *
+ * Usage: RaveMatch [games] [difficulty] [raveK] [maxPlies]
+ */
+public class RaveMatch {
+
+  private static final String[] NAMES = { "rave", "plain" };
+
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    int difficulty = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+    double raveK = args.length > 2 ? Double.parseDouble(args[2]) : 100;
+    int maxPlies = args.length > 3 ? Integer.parseInt(args[3]) : 150;
+    System.out.printf("games=%d difficulty=%d raveK=%.0f maxPlies=%d%n", games, difficulty, raveK, maxPlies);
+    SearchCache.shared().setEnabled(false);
+
+    long[] wins = new long[2];
+    long draws = 0;
+    long[] moves = new long[2];
+    long[] nanos = new long[2];
+    for (int game = 0; game < games; game++) {
+      // RAVE plays RED in even games
+      int raveColor = (game % 2 == 0) ? CheckersData.RED : CheckersData.BLACK;
+      MonteCarloTreeSearch[] engines = {
+        new MonteCarloTreeSearch(raveColor, difficulty, null),
+        new MonteCarloTreeSearch(opponent(raveColor), difficulty, null),
+      };
+      engines[0].setRaveK(raveK);
+      engines[1].setRaveK(0);
+
+      Checkers setup = new Checkers();
+      setup.intializeBoard();
+      CheckersData board = setup.getCheckersData();
+      int side = CheckersData.RED;
+      int winner = 0;
+      int plies = 0;
+      for (; plies < maxPlies; plies++) {
+        CheckersMove[] legal = board.getLegalMovesMap(side).values().stream()
+          .flatMap(Collection::stream)
+          .filter(move -> move != null && move.getSize() > 1)
+          .toArray(CheckersMove[]::new);
+        if (legal.length == 0) {
+          winner = opponent(side);
+          break;
+        }
+        int who = (side == raveColor) ? 0 : 1;
+        engines[who].setCheckersData(board.clone(), side);
+        long start = System.nanoTime();
+        CheckersMove move = engines[who].makeMove(legal);
+        nanos[who] += System.nanoTime() - start;
+        moves[who]++;
+        board.applyMove(move);
+        side = opponent(side);
+      }
+
+      String result;
+      if (winner == 0) {
+        draws++;
+        result = "draw";
+      } else {
+        int who = (winner == raveColor) ? 0 : 1;
+        wins[who]++;
+        result = NAMES[who] + " wins";
+      }
+      System.out.printf(
+        "game %d: rave plays %s, %s after %d plies%n",
+        game + 1, (raveColor == CheckersData.RED) ? "RED" : "BLACK", result, plies
+      );
+    }
+
+    System.out.printf("%nrave %d - plain %d, draws %d%n", wins[0], wins[1], draws);
+    for (int who = 0; who < 2; who++) {
+      System.out.printf("%-6s %.1f ms/move%n", NAMES[who], moves[who] == 0 ? 0 : nanos[who] / 1e6 / moves[who]);
+    }
+  }
+
+  private static int opponent(int side) {
+    return (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+  }
+}
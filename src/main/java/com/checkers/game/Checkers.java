@@ -3,8 +3,10 @@ package main.java.com.checkers.game;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import main.java.com.checkers.ai.AdversarialSearch;
 import main.java.com.checkers.ai.MonteCarloTreeSearch;
+import main.java.com.checkers.ai.SearchSnapshot;
 import main.java.com.checkers.game.CheckersData.Cell;
 
 /**
@@ -14,14 +16,22 @@ import main.java.com.checkers.game.CheckersData.Cell;
  */
 public class Checkers {
 
+  // What performAIMove returns when it made a move; anything else means it did not
+  public static final String AI_MOVE_MADE = "Successfull AI Move";
+
   private CheckersData board; // The data for the checkers board.
   private int currentPlayer; // Current player (RED or BLACK).
   private int userColor;
   private int aiColor;
   private boolean gameInProgress; // Is the game active?
   private HashMap<Cell, ArrayList<CheckersMove>> legalMovesMap; // List of legal moves for the current player.
-  private AdversarialSearch aiPlayer; // AI logic for BLACK.
+  private AdversarialSearch aiPlayer; // AI logic for aiColor.
   private int difficulty;
+  // Every move played since the game started, as {row0, col0, row1, col1, ...}
+  private final ArrayList<int[]> moveHistory = new ArrayList<>();
+  // Positions since the last capture or man move, for the draw rules
+  private final PositionHistory positions = new PositionHistory();
+  private boolean drawn;
 
   /**
    * Initializes the game and sets up the board.
@@ -36,19 +46,24 @@ public class Checkers {
     this.userColor = userColor;
     this.currentPlayer = CheckersData.RED; //RED always goes first
     this.difficulty = difficulty;
+    moveHistory.clear();
     setLegalMovesMap(currentPlayer);
+    positions.reset(board, currentPlayer);
+    drawn = false;
     gameInProgress = true;
     this.aiColor =
-      (currentPlayer == CheckersData.RED)
+      (userColor == CheckersData.RED)
         ? CheckersData.BLACK
         : CheckersData.RED;
 
-    aiPlayer = new MonteCarloTreeSearch(1, this.difficulty);
+    aiPlayer = new MonteCarloTreeSearch(aiColor, this.difficulty);
     aiPlayer.setCheckersData(board, aiColor);
     return "Success";
   }
 
   public void intializeBoard() {
+    moveHistory.clear();
+    drawn = false;
     this.board = new CheckersData();
     board.setUpGame(); // Sets up the initial state of the board.
   }
@@ -95,29 +110,51 @@ public class Checkers {
    * @return The move made by the AI.
    */
   public String performAIMove() {
-    // Flatten all moves into a single array
-    CheckersMove[] movesArray = legalMovesMap.values().stream()
-        .flatMap(Collection::stream)
-        .filter(move -> move != null && move.getSize() > 1)
-        .toArray(CheckersMove[]::new);
+    return performAIMove(1.0);
+  }
+
+  /**
+   * Handles the AI's turn with a reduced search budget.
+   *
+   * @param budgetScale fraction of the difficulty's search budget to use
+   * @return The move made by the AI.
+   */
+  public String performAIMove(double budgetScale) {
+    if (!gameInProgress) {
+      return "The game is not active. Please start a new game.";
+    }
+    CheckersMove[] movesArray = getLegalMoves();
 
     if (movesArray.length == 0) {
         return "Failed AI move - No valid moves";
     }
 
+    // Search for the side to move, which is the AI in a real game
+    aiPlayer.setCheckersData(board, currentPlayer);
+    aiPlayer.setBudgetScale(budgetScale);
+    aiPlayer.setPositionHistory(positions);
     CheckersMove aiMove = aiPlayer.makeMove(movesArray);
     if(aiMove == null){
         System.out.println("Failed AI move");
         return "Failed AI move";
     }
     moveCheckersPiece(aiMove);
-    return "Successfull AI Move";
+    return AI_MOVE_MADE;
   }
 
   public void moveCheckersPiece(CheckersMove checkersMove){
+    int[] path = new int[checkersMove.rows.size() * 2];
+    for (int i = 0; i < checkersMove.rows.size(); i++) {
+      path[2 * i] = checkersMove.rows.get(i);
+      path[2 * i + 1] = checkersMove.cols.get(i);
+    }
+    moveHistory.add(path);
+    boolean progress = PositionHistory.isProgress(board, checkersMove);
     board.makeMove(checkersMove);
-    checkGameState();
+    // One move generation per ply: the next side's moves also decide game over
     switchTurns();
+    positions.push(board, currentPlayer, progress);
+    checkGameState();
   }
 
   /**
@@ -128,6 +165,35 @@ public class Checkers {
     initializeGame(this.difficulty, this.userColor);
   }
 
+  /**
+   * Rebuilds a game saved mid-play: the same setup as initializeGame, then
+   * the saved position and turn on top of it.
+   */
+  public String restoreGame(
+    int[][] cells,
+    int difficulty,
+    int userColor,
+    int currentPlayer,
+    boolean gameInProgress
+  ) {
+    if (board == null) {
+      intializeBoard();
+    }
+    board.loadBoard(cells);
+    String response = initializeGame(difficulty, userColor);
+    if (!response.equals("Success")) {
+      return response;
+    }
+    this.currentPlayer = currentPlayer;
+    setLegalMovesMap(currentPlayer);
+    this.gameInProgress = gameInProgress;
+    // The history before the save is gone; a game that stopped with moves
+    // and pieces left can only have ended in a draw
+    positions.reset(board, currentPlayer);
+    drawn = !gameInProgress && board.numRed > 0 && board.numBlack > 0 && getLegalMoves().length > 0;
+    return response;
+  }
+
   /**
    * Stops the game and sets difficulty to -1
    */
@@ -136,13 +202,13 @@ public class Checkers {
   }
 
   /**
-   * Checks the state of the game to see if it has ended.
+   * Checks the state of the game to see if it has ended: either side out of
+   * pieces, the side to move without a legal move, or a draw by repetition
+   * or the no-progress rule.
    */
   public void checkGameState() {
-    HashMap<Cell, ArrayList<CheckersMove>> moves = board.getLegalMovesMap(currentPlayer);
-   
     // Check if there are any valid moves
-    boolean noMoves = moves.values().stream()
+    boolean noMoves = legalMovesMap.values().stream()
        .flatMap(Collection::stream)
        .filter(move -> move != null && move.rows.size() > 1)
        .count() == 0;
@@ -153,6 +219,9 @@ public class Checkers {
         gameInProgress = false;
     } else if (noMoves) {
         gameInProgress = false;
+    } else if (positions.isDraw()) {
+        gameInProgress = false;
+        drawn = true;
     }
   }
 
@@ -191,12 +260,23 @@ public class Checkers {
     return gameInProgress;
   }
 
+  /**
+   * @return whether the game ended in a draw
+   */
+  public boolean isDraw() {
+    return drawn;
+  }
+
   /**
    * Gets the list of legal moves for the current player.
    *
    * @return A list of legal moves.
    */
   public CheckersMove[] getLegalMoves() {
+   // No game has been set up yet (e.g. a rejected start)
+   if (legalMovesMap == null) {
+       return new CheckersMove[0];
+   }
    // Flatten all move lists into a single array
    return legalMovesMap.values().stream()
        .flatMap(Collection::stream)
@@ -209,7 +289,7 @@ public class Checkers {
     ArrayList<int[]> validDestinations = new ArrayList<>();
     Cell selectedCell = new Cell(row, col);
     
-    ArrayList<CheckersMove> moves = legalMovesMap.get(selectedCell);
+    ArrayList<CheckersMove> moves = (legalMovesMap != null) ? legalMovesMap.get(selectedCell) : null;
     if (moves != null) {
         for (CheckersMove move : moves) {
             if (move != null && move.rows.size() > 1) {
@@ -228,6 +308,18 @@ public class Checkers {
     return board;
   }
 
+  public int getDifficulty() {
+    return difficulty;
+  }
+
+  public List<int[]> getMoveHistory() {
+    return moveHistory;
+  }
+
+  public SearchSnapshot getSearchSnapshot() {
+    return (aiPlayer != null) ? aiPlayer.getLatestSnapshot() : null;
+  }
+
   public void setCheckersData(CheckersData board) {
     this.board = board;
   
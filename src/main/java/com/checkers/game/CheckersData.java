@@ -109,6 +109,45 @@ public class CheckersData implements GameState<CheckersMove>, Cloneable {
     }
   }
 
+  public int getPiece(int row, int col) {
+    return board[row][col];
+  }
+
+  /**
+   * The position packed 4 bits a dark square, squares 0-15 in the first
+   * long and 16-31 in the second; equal positions give equal keys.
+   */
+  public long[] packedSquares() {
+    long[] packed = new long[2];
+    for (int row = 0; row < 8; row++) {
+      for (int col = row % 2; col < 8; col += 2) {
+        int square = row * 4 + col / 2;
+        packed[square >> 4] |= (long) (board[row][col] & 0x0F) << ((square & 15) * 4);
+      }
+    }
+    return packed;
+  }
+
+  /**
+   * Replaces the position with a saved one and recounts the pieces.
+   */
+  void loadBoard(int[][] cells) {
+    numRed = 0;
+    numBlack = 0;
+    for (int row = 0; row < board.length; row++) {
+      for (int col = 0; col < board[row].length; col++) {
+        int piece = cells[row][col];
+        board[row][col] = piece;
+        if (piece == RED || piece == RED_KING) {
+          numRed++;
+        } else if (piece == BLACK || piece == BLACK_KING) {
+          numBlack++;
+        }
+      }
+    }
+    setMoveMap();
+  }
+
   @FunctionalInterface
   interface BoardPlacer {
     void place(int[][] board, int row, int col, int color);
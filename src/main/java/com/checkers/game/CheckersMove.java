@@ -69,6 +69,26 @@ public class CheckersMove {
     return this.rows.size();
   }
 
+  // Row and column of the i-th square visited
+  public int getRow(int i) {
+    return rows.get(i);
+  }
+
+  public int getCol(int i) {
+    return cols.get(i);
+  }
+
+  /**
+   * @return the squares visited by this move as [row, col] pairs
+   */
+  public int[][] toPath() {
+    int[][] path = new int[rows.size()][];
+    for (int i = 0; i < rows.size(); i++) {
+      path[i] = new int[] { rows.get(i), cols.get(i) };
+    }
+    return path;
+  }
+
   //get a copy of this move
   @Override
   public CheckersMove clone() {
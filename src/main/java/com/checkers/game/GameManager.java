@@ -1,6 +1,9 @@
 package main.java.com.checkers.game;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import main.java.com.checkers.ai.SearchSnapshot;
 import main.java.com.checkers.util.GameResponse;
 import main.java.com.checkers.util.GameResponseUtil;
 
@@ -10,6 +13,17 @@ public class GameManager {
   private int playerColor;
   private int aiColor;
   private boolean setHasLegalMoves;
+  // Bumped on every change to the position; lets clients detect stale boards.
+  // Only written from the session mailbox, read from any thread.
+  private volatile long positionVersion;
+  // Legal moves of the position at legalMoves.getVersion(); mailbox only
+  private LegalMoveCache legalMoves;
+  // Bookkeeping for the game archive
+  private long startedAt;
+  private long aiThinkNanos;
+  private int aiMoves;
+  private int[][] startBoard; // null when the game began from the usual setup
+  private int startSide = CheckersData.RED;
 
   public GameManager() {
     this.checkersGame = new Checkers();
@@ -31,6 +45,8 @@ public class GameManager {
     if (!response.equals("Success")) {
       return new GameResponse<>(false, response);
     }
+    positionVersion++;
+    beginRecord(null, CheckersData.RED);
     checkersGame.getCheckersData().printGameState();
     return new GameResponse<>(true, "Game started successfully.");
   }
@@ -55,6 +71,7 @@ public class GameManager {
     }
 
     String playerResp = checkersGame.makeMove(fromRow, fromCol, toRow, toCol);
+    positionVersion++;
 
     if (!playerResp.equals("Move successful.")) { // Fix string comparison
       return new GameResponse<>(false, playerResp);
@@ -85,7 +102,9 @@ public class GameManager {
       return new GameResponse<>(false, "Not AI's turn.");
     }
 
-    checkersGame.performAIMove();
+    if (checkersGame.performAIMove().equals(Checkers.AI_MOVE_MADE)) {
+      positionVersion++;
+    }
 
     if (!checkersGame.isGameInProgress()) {
       return new GameResponse<>(true, aiColor + " wins");
@@ -97,12 +116,148 @@ public class GameManager {
     return new GameResponse<>(true, "AI move successful. Player's turn.");
   }
 
+  public int getDifficulty() {
+    return checkersGame.getDifficulty();
+  }
+
+  public int getPlayerColor() {
+    return playerColor;
+  }
+
+  public boolean isGameInProgress() {
+    return checkersGame.isGameInProgress();
+  }
+
+  /**
+   * Puts back a game saved by the session journal, including its version
+   * so clients' cached ETags stay valid across the restart.
+   */
+  public GameResponse<Void> restoreGame(
+    int[][] board,
+    int difficulty,
+    int playerColor,
+    int sideToMove,
+    boolean gameInProgress,
+    boolean started,
+    long version
+  ) {
+    this.positionVersion = version;
+    this.legalMoves = null;
+    if (!started) {
+      checkersGame.intializeBoard();
+      return new GameResponse<>(true, "No game to restore.");
+    }
+    this.playerColor = playerColor;
+    this.aiColor =
+      (playerColor == CheckersData.BLACK)
+        ? CheckersData.RED
+        : CheckersData.BLACK;
+    String response = checkersGame.restoreGame(board, difficulty, playerColor, sideToMove, gameInProgress);
+    if (!response.equals("Success")) {
+      return new GameResponse<>(false, response);
+    }
+    // Earlier moves are not journaled, so the record starts from here
+    beginRecord(checkersGame.getCheckersData().getBoard(), sideToMove);
+    return new GameResponse<>(true, "Game restored.");
+  }
+
+  private void beginRecord(int[][] board, int sideToMove) {
+    this.startedAt = System.currentTimeMillis();
+    this.aiThinkNanos = 0;
+    this.aiMoves = 0;
+    this.startSide = sideToMove;
+    if (board == null) {
+      this.startBoard = null;
+    } else {
+      this.startBoard = new int[board.length][];
+      for (int r = 0; r < board.length; r++) {
+        this.startBoard[r] = board[r].clone();
+      }
+    }
+  }
+
+  public long getStartedAt() {
+    return startedAt;
+  }
+
+  public long getAiThinkMillis() {
+    return aiThinkNanos / 1_000_000;
+  }
+
+  public int getAiMoves() {
+    return aiMoves;
+  }
+
+  public int[][] getStartBoard() {
+    return startBoard;
+  }
+
+  public int getStartSide() {
+    return startSide;
+  }
+
+  /**
+   * Moves played so far, each as {row0, col0, row1, col1, ...}.
+   */
+  public List<int[]> getMoveHistory() {
+    return new ArrayList<>(checkersGame.getMoveHistory());
+  }
+
+  /**
+   * @return the winner of a finished game (RED or BLACK), or EMPTY for a draw
+   */
+  public int getWinner() {
+    CheckersData data = checkersGame.getCheckersData();
+    if (data.numRed <= 0) {
+      return CheckersData.BLACK;
+    }
+    if (data.numBlack <= 0) {
+      return CheckersData.RED;
+    }
+    if (checkersGame.isDraw()) {
+      return CheckersData.EMPTY;
+    }
+    // Otherwise a side ran out of moves; if it is not the side to move, the
+    // game ended right after its own move
+    int side = checkersGame.getCurrentPlayer();
+    int other = (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+    return legalMoves().hasMoves() ? side : other;
+  }
+
+  /**
+   * The cached legal moves for the current position, rebuilt once after
+   * each change of position version.
+   */
+  private LegalMoveCache legalMoves() {
+    LegalMoveCache cache = legalMoves;
+    if (cache == null || cache.getVersion() != positionVersion) {
+      cache = new LegalMoveCache(positionVersion, checkersGame.getCurrentPlayer(), checkersGame.getLegalMoves());
+      legalMoves = cache;
+    }
+    return cache;
+  }
+
+  public SearchSnapshot getSearchSnapshot() {
+    return checkersGame.getSearchSnapshot();
+  }
+
+  public int getSideToMove() {
+    return checkersGame.getCurrentPlayer();
+  }
+
+  public long getPositionVersion() {
+    return positionVersion;
+  }
+
   public void resetGame() {
     checkersGame.resetGame();
+    positionVersion++;
+    beginRecord(null, CheckersData.RED);
   }
 
   public void newGame() {
     checkersGame.intializeBoard();
+    positionVersion++;
   }
 
   public GameResponse<int[][]> getBoard() {
@@ -122,46 +277,92 @@ public class GameManager {
   }
 
   public GameResponse<ArrayList<int[]>> getLegalMoves(int row, int col) {
-    ArrayList<int[]> moves = checkersGame.getLegalMovesByPiece(row, col);
+    ArrayList<int[]> moves = legalMoves().destinations(row, col);
     return new GameResponse<>(true, "Legal moves retrieved", moves);
 }
   
+  public boolean isPlayerTurn() {
+    return checkersGame.isGameInProgress() && checkersGame.getCurrentPlayer() == playerColor;
+  }
+
+  public boolean isAITurn() {
+    return checkersGame.isGameInProgress() && checkersGame.getCurrentPlayer() == aiColor;
+  }
+
+  /**
+   * Every movable piece of the side to move with its destinations, in board order.
+   */
+  public List<Map<String, Object>> getLegalMoveMap() {
+    return legalMoves().pieces();
+  }
+
   public boolean isValidPiece(int r, int c){
+    if (r < 0 || r > 7 || c < 0 || c > 7) {
+      return false;
+    }
     int playerKing = (playerColor == CheckersData.RED) ? CheckersData.RED_KING : CheckersData.BLACK_KING;
     int[][] board = checkersGame.getBoardState();  
     return board[r][c] == playerColor || board[r][c] == playerKing;
   }
 
   public GameResponse<Void> makePlayerMove(int fRow, int fCol, int tRow, int tCol){
-    ArrayList<int[]> moves = checkersGame.getLegalMovesByPiece(fRow, fCol);
-    boolean validMove = false;
-    for(int[] coord : moves){
-      if(coord[0] == tRow && coord[1] == tCol){
-        validMove = true;
-      }
+    if (!checkersGame.isGameInProgress()) {
+      return new GameResponse<>(false, "The game is not active. Please start a new game.");
     }
-
-    if(!validMove){
+    LegalMoveCache cache = legalMoves();
+    CheckersMove move = (cache.getSide() == playerColor) ? cache.find(fRow, fCol, tRow, tCol) : null;
+    if (move == null) {
       return new GameResponse<>(false, "Illegal move");
     }
 
     //valid move so make the move 
-    String message = checkersGame.makeMove(fRow, fCol, tRow, tCol);
+    checkersGame.moveCheckersPiece(move);
+    positionVersion++;
 
-    return new GameResponse<>(validMove, message);
+    return new GameResponse<>(true, "Move successful.");
   }
 
   public GameResponse<Void> makeAIMove(){
-    String response = checkersGame.performAIMove();
-    if(response.equals("Failed AI move")){
-      return new GameResponse<>(false, response);
-    }  
+    return makeAIMove(1.0);
+  }
 
+  /**
+   * @param budgetScale fraction of the difficulty's search budget to use
+   */
+  public GameResponse<Void> makeAIMove(double budgetScale){
+    // A draw ends the game while both sides can still move
+    if (!checkersGame.isGameInProgress()) {
+      return new GameResponse<>(false, "The game is not active. Please start a new game.");
+    }
+    long thinkStart = System.nanoTime();
+    String response = checkersGame.performAIMove(budgetScale);
+    if (!response.equals(Checkers.AI_MOVE_MADE)) {
+      return new GameResponse<>(false, response);
+    }
+    aiThinkNanos += System.nanoTime() - thinkStart;
+    aiMoves++;
+    positionVersion++;
     return new GameResponse<>(true, response);
   }
 
+  /**
+   * @return 0 if RED has no pieces left, 1 if BLACK has none, 2 if the side
+   *         to move is blocked, 3 for a draw, otherwise -1
+   */
   public GameResponse<Integer> getGameState(){
-    int status = checkersGame.getCheckersData().terminationState(playerColor);
+    CheckersData data = checkersGame.getCheckersData();
+    int status;
+    if (data.numRed <= 0) {
+      status = 0;
+    } else if (data.numBlack <= 0) {
+      status = 1;
+    } else if (checkersGame.isDraw()) {
+      status = 3;
+    } else if (checkersGame.isGameInProgress() || legalMoves().hasMoves()) {
+      status = -1;
+    } else {
+      status = 2;
+    }
     return GameResponseUtil.generateResponse(true, "hello", status);
   }
 }
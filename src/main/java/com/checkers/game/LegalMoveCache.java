@@ -0,0 +1,135 @@
+package main.java.com.checkers.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The side to move's legal moves in one position, indexed by square so each
+ * query is a table lookup instead of a scan of the move lists.
+ *
+ * Built once from the move list and tagged with the position version it was
+ * built for; {@link GameManager} replaces it when the version moves on. It
+ * holds its own copies, so later changes to the board's move maps do not
+ * leak into it.
+ */
+final class LegalMoveCache {
+
+  private static final int[][] NO_SQUARES = new int[0][];
+
+  private final long version;
+  private final int side;
+  private final int moveCount;
+  // Indexed by square (row * 8 + col) of the moving piece
+  private final CheckersMove[][] movesFrom = new CheckersMove[64][];
+  private final int[][][] pathSquares = new int[64][][]; // every square after the start
+  private final long[] targets = new long[64]; // final squares as a bit set
+  private long movable; // squares with at least one move
+  private List<Map<String, Object>> pieces;
+
+  LegalMoveCache(long version, int side, CheckersMove[] moves) {
+    this.version = version;
+    this.side = side;
+    this.moveCount = moves.length;
+
+    int[] counts = new int[64];
+    int[] steps = new int[64];
+    for (CheckersMove move : moves) {
+      int from = square(move.rows.get(0), move.cols.get(0));
+      counts[from]++;
+      steps[from] += move.rows.size() - 1;
+    }
+    for (int from = 0; from < 64; from++) {
+      if (counts[from] > 0) {
+        movesFrom[from] = new CheckersMove[counts[from]];
+        pathSquares[from] = new int[steps[from]][];
+        movable |= 1L << from;
+        counts[from] = 0;
+        steps[from] = 0;
+      }
+    }
+    for (CheckersMove move : moves) {
+      int last = move.rows.size() - 1;
+      int from = square(move.rows.get(0), move.cols.get(0));
+      movesFrom[from][counts[from]++] = move;
+      for (int i = 1; i <= last; i++) {
+        pathSquares[from][steps[from]++] = new int[] { move.rows.get(i), move.cols.get(i) };
+      }
+      targets[from] |= 1L << square(move.rows.get(last), move.cols.get(last));
+    }
+  }
+
+  private static int square(int row, int col) {
+    return row * 8 + col;
+  }
+
+  private static boolean onBoard(int row, int col) {
+    return row >= 0 && row < 8 && col >= 0 && col < 8;
+  }
+
+  long getVersion() {
+    return version;
+  }
+
+  int getSide() {
+    return side;
+  }
+
+  boolean hasMoves() {
+    return moveCount > 0;
+  }
+
+  /**
+   * Squares a piece passes through or lands on, in the form /legal-moves
+   * has always returned.
+   */
+  ArrayList<int[]> destinations(int row, int col) {
+    if (!onBoard(row, col)) {
+      return new ArrayList<>();
+    }
+    int[][] squares = pathSquares[square(row, col)];
+    return new ArrayList<>(Arrays.asList((squares == null) ? NO_SQUARES : squares));
+  }
+
+  /**
+   * @return the legal move from one square to another, or null
+   */
+  CheckersMove find(int fromRow, int fromCol, int toRow, int toCol) {
+    if (!onBoard(fromRow, fromCol) || !onBoard(toRow, toCol)) {
+      return null;
+    }
+    int from = square(fromRow, fromCol);
+    if ((targets[from] & (1L << square(toRow, toCol))) == 0) {
+      return null;
+    }
+    for (CheckersMove move : movesFrom[from]) {
+      int last = move.rows.size() - 1;
+      if (move.rows.get(last) == toRow && move.cols.get(last) == toCol) {
+        return move;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Every movable piece with its destinations, in board order; built on
+   * first use.
+   */
+  List<Map<String, Object>> pieces() {
+    if (pieces == null) {
+      List<Map<String, Object>> list = new ArrayList<>(Long.bitCount(movable));
+      for (long rest = movable; rest != 0; rest &= rest - 1) {
+        int from = Long.numberOfTrailingZeros(rest);
+        Map<String, Object> piece = new LinkedHashMap<>();
+        piece.put("from", new int[] { from / 8, from % 8 });
+        piece.put("to", Arrays.asList(pathSquares[from]));
+        list.add(piece);
+      }
+      pieces = Collections.unmodifiableList(list);
+    }
+    return pieces;
+  }
+}
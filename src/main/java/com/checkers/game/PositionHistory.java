@@ -0,0 +1,146 @@
+package main.java.com.checkers.game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import main.java.com.checkers.util.ServerConfig;
+
+/**
+ * Positions played since the last irreversible move (a capture or a man
+ * moving), for the draw rules: the same position with the same side to move
+ * for the third time, or too many plies in a row without a capture or a man
+ * move. Positions are kept as Zobrist hashes, so a ply costs one pass over
+ * the 32 dark squares and a scan of the positions since the last capture.
+ *
+ * Used by the game and by the rollouts of the search.
+ */
+public final class PositionHistory {
+
+  // Plies without a capture or man move before a draw (0 disables); 80 is
+  // the 40-move rule
+  private static volatile int noProgressPlies = 80;
+  // Occurrences of a position that draw (0 disables)
+  private static volatile int repetitions = 3;
+
+  private static final long[][] PIECE_KEYS = new long[32][5];
+  private static final long BLACK_TO_MOVE;
+
+  static {
+    SplittableRandom random = new SplittableRandom(0x5EED_C0DEL);
+    for (long[] square : PIECE_KEYS) {
+      for (int piece = 1; piece < square.length; piece++) {
+        square[piece] = random.nextLong();
+      }
+    }
+    BLACK_TO_MOVE = random.nextLong();
+  }
+
+  private long[] hashes = new long[32];
+  private int size;
+  private boolean draw;
+
+  public static void configure(ServerConfig config) {
+    setLimits(
+      config.getInt("DRAW_NO_PROGRESS_PLIES", noProgressPlies),
+      config.getInt("DRAW_REPETITIONS", repetitions)
+    );
+  }
+
+  public static void setLimits(int noProgressPlies, int repetitions) {
+    PositionHistory.noProgressPlies = Math.max(0, noProgressPlies);
+    PositionHistory.repetitions = (repetitions < 2) ? 0 : repetitions;
+  }
+
+  public static int getNoProgressPlies() {
+    return noProgressPlies;
+  }
+
+  public static int getRepetitions() {
+    return repetitions;
+  }
+
+  /**
+   * Zobrist hash of the position and the side to move.
+   */
+  public static long hash(CheckersData state, int sideToMove) {
+    long hash = (sideToMove == CheckersData.BLACK) ? BLACK_TO_MOVE : 0;
+    for (int row = 0; row < 8; row++) {
+      for (int col = row % 2; col < 8; col += 2) {
+        int piece = state.board[row][col];
+        if (piece != CheckersData.EMPTY) {
+          hash ^= PIECE_KEYS[row * 4 + col / 2][piece];
+        }
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Whether a move cannot be undone, and so resets the draw counters. Must be
+   * called before the move is applied.
+   */
+  public static boolean isProgress(CheckersData before, CheckersMove move) {
+    int piece = before.getPiece(move.getRow(0), move.getCol(0));
+    return move.isCapture() || piece == CheckersData.RED || piece == CheckersData.BLACK;
+  }
+
+  /**
+   * Starts a new history at the given position.
+   */
+  public void reset(CheckersData state, int sideToMove) {
+    size = 0;
+    draw = false;
+    add(hash(state, sideToMove));
+  }
+
+  /**
+   * Records the position after a move.
+   *
+   * @param progress whether the move was a capture or a man move, from
+   *                 {@link #isProgress}
+   */
+  public void push(CheckersData after, int sideToMove, boolean progress) {
+    if (progress) {
+      size = 0;
+    }
+    long hash = hash(after, sideToMove);
+    add(hash);
+
+    int limit = noProgressPlies;
+    if (limit > 0 && size - 1 >= limit) {
+      draw = true;
+      return;
+    }
+    int needed = repetitions;
+    if (needed > 0) {
+      // Sides alternate every ply, so only every other entry can match
+      int seen = 1;
+      for (int i = size - 3; i >= 0 && seen < needed; i -= 2) {
+        if (hashes[i] == hash) {
+          seen++;
+        }
+      }
+      draw = seen >= needed;
+    }
+  }
+
+  private void add(long hash) {
+    if (size == hashes.length) {
+      hashes = Arrays.copyOf(hashes, size * 2);
+    }
+    hashes[size++] = hash;
+  }
+
+  /**
+   * @return whether the last position recorded is drawn by either rule
+   */
+  public boolean isDraw() {
+    return draw;
+  }
+
+  /**
+   * @return plies since the last capture or man move
+   */
+  public int getPliesWithoutProgress() {
+    return size - 1;
+  }
+}
@@ -0,0 +1,119 @@
+package main.java.com.checkers.http;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A selector thread serving a share of the server's connections. Other
+ * threads interact with its connections only by posting tasks.
+ */
+final class EventLoop implements Runnable {
+
+  private final NioHttpServer server;
+  private final Selector selector;
+  private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final Thread thread;
+  private volatile boolean running = true;
+
+  EventLoop(NioHttpServer server, String name) throws IOException {
+    this.server = server;
+    this.selector = Selector.open();
+    this.thread = new Thread(this, name);
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  Selector selector() {
+    return selector;
+  }
+
+  /**
+   * Runs the task on the loop thread, in submission order.
+   */
+  void execute(Runnable task) {
+    tasks.add(task);
+    if (Thread.currentThread() != thread) {
+      selector.wakeup();
+    }
+  }
+
+  void accept(SocketChannel channel) {
+    execute(() -> {
+      try {
+        HttpConnection connection = new HttpConnection(channel, this, server);
+        connection.register();
+        server.onConnectionOpened(connection);
+      } catch (IOException e) {
+        try {
+          channel.close();
+        } catch (IOException ignored) {
+          // nothing to clean up
+        }
+      }
+    });
+  }
+
+  @Override
+  public void run() {
+    while (running) {
+      try {
+        selector.select();
+      } catch (IOException e) {
+        System.out.println("[Error] Selector failed: " + e.getMessage());
+        break;
+      }
+      runTasks();
+
+      Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+      while (keys.hasNext()) {
+        SelectionKey key = keys.next();
+        keys.remove();
+        HttpConnection connection = (HttpConnection) key.attachment();
+        try {
+          if (key.isValid() && key.isReadable()) {
+            connection.onReadable();
+          }
+          if (key.isValid() && key.isWritable()) {
+            connection.onWritable();
+          }
+        } catch (IOException | RuntimeException e) {
+          connection.close();
+        }
+      }
+    }
+
+    runTasks();
+    for (SelectionKey key : new ArrayList<>(selector.keys())) {
+      ((HttpConnection) key.attachment()).close();
+    }
+    try {
+      selector.close();
+    } catch (IOException ignored) {
+      // shutting down
+    }
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        System.out.println("[Error] Event loop task failed: " + e.getMessage());
+      }
+    }
+  }
+
+  void stop() {
+    running = false;
+    selector.wakeup();
+  }
+}
@@ -0,0 +1,386 @@
+package main.java.com.checkers.http;
+
+import com.sun.net.httpserver.Headers;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * One keep-alive connection, owned by a single event loop.
+ *
+ * Requests are parsed straight out of a pooled input buffer and served one
+ * at a time: pipelined requests wait in the buffer until the response to
+ * the previous one has been queued, so responses always go out in order.
+ * The input buffer goes back to the pool whenever the connection is idle
+ * with nothing buffered.
+ *
+ * All state is touched only on the loop thread, except {@link #send} and
+ * {@link #complete}, which handler threads call and which hop to the loop.
+ */
+final class HttpConnection {
+
+  // Bodies larger than one pooled buffer get a temporary heap buffer up to this size
+  private static final int MAX_REQUEST_BYTES = 1024 * 1024;
+  private static final byte[] CONTINUE =
+    "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+  private final SocketChannel channel;
+  private final EventLoop loop;
+  private final NioHttpServer server;
+  private final InetSocketAddress remoteAddress;
+  private final InetSocketAddress localAddress;
+  private SelectionKey key;
+
+  private ByteBuffer in; // write mode: [0, position) is unread input
+  private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+  private NioExchange current;
+  private int requestEnd;
+  private boolean continueSent;
+  private boolean inputClosed;
+  private boolean closeAfterWrite;
+  private volatile boolean closed;
+  private volatile long lastActive = System.currentTimeMillis();
+
+  HttpConnection(SocketChannel channel, EventLoop loop, NioHttpServer server) throws IOException {
+    this.channel = channel;
+    this.loop = loop;
+    this.server = server;
+    this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+    this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+  }
+
+  void register() throws IOException {
+    key = channel.register(loop.selector(), SelectionKey.OP_READ, this);
+  }
+
+  void onReadable() throws IOException {
+    if (in == null) {
+      in = server.getBufferPool().acquire();
+    }
+    if (!in.hasRemaining()) {
+      // Buffer full behind an in-flight request; resume once it completes
+      setInterest(SelectionKey.OP_READ, false);
+      return;
+    }
+    int n = channel.read(in);
+    if (n < 0) {
+      inputClosed = true;
+      if (current == null) {
+        close();
+      } else {
+        // Let the in-flight response finish, then close
+        closeAfterWrite = true;
+        setInterest(SelectionKey.OP_READ, false);
+      }
+      return;
+    }
+    lastActive = System.currentTimeMillis();
+    parse();
+  }
+
+  void onWritable() throws IOException {
+    flush();
+  }
+
+  /**
+   * Parses and dispatches the next complete request in the input buffer.
+   */
+  private void parse() throws IOException {
+    if (current != null || closeAfterWrite || in == null) {
+      return;
+    }
+    int end = in.position();
+    int headerEnd = findHeaderEnd(end);
+    if (headerEnd < 0) {
+      if (end == in.capacity()) {
+        reject(431);
+      } else if (end == 0) {
+        releaseInput();
+      }
+      return;
+    }
+
+    byte[] head = new byte[headerEnd];
+    in.get(0, head);
+    String[] lines = new String(head, StandardCharsets.ISO_8859_1).split("\r\n");
+    String[] requestLine = lines[0].split(" ");
+    if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+      reject(400);
+      return;
+    }
+    Headers headers = new Headers();
+    for (int i = 1; i < lines.length; i++) {
+      int colon = lines[i].indexOf(':');
+      if (colon > 0) {
+        headers.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+      }
+    }
+    if (headers.containsKey("Transfer-encoding")) {
+      // Clients of this server always send Content-Length
+      reject(501);
+      return;
+    }
+
+    long contentLength;
+    try {
+      String value = headers.getFirst("Content-length");
+      contentLength = (value == null) ? 0 : Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      reject(400);
+      return;
+    }
+    if (contentLength < 0 || headerEnd + contentLength > MAX_REQUEST_BYTES) {
+      reject(413);
+      return;
+    }
+    int total = headerEnd + (int) contentLength;
+    if (total > in.capacity()) {
+      ByteBuffer larger = ByteBuffer.allocate(total);
+      in.flip();
+      larger.put(in);
+      server.getBufferPool().release(in);
+      in = larger;
+    }
+    if (end < total) {
+      if (!continueSent && "100-continue".equalsIgnoreCase(headers.getFirst("Expect"))) {
+        continueSent = true;
+        send(List.of(ByteBuffer.wrap(CONTINUE)));
+      }
+      return;
+    }
+    continueSent = false;
+
+    URI uri;
+    try {
+      uri = new URI(requestLine[1]);
+    } catch (URISyntaxException e) {
+      reject(400);
+      return;
+    }
+    String protocol = requestLine[2];
+    String connectionHeader = headers.getFirst("Connection");
+    boolean keepAlive = protocol.equals("HTTP/1.1")
+      ? !"close".equalsIgnoreCase(connectionHeader)
+      : "keep-alive".equalsIgnoreCase(connectionHeader);
+    keepAlive &= server.isRunning() && !inputClosed;
+
+    NioContext context = server.findContext(uri.getPath());
+    if (context == null) {
+      reject(404);
+      return;
+    }
+
+    ByteBuffer body = in.duplicate();
+    body.limit(total).position(headerEnd);
+    requestEnd = total;
+    current = new NioExchange(
+      this,
+      context,
+      requestLine[0],
+      uri,
+      protocol,
+      headers,
+      body.slice().asReadOnlyBuffer(),
+      keepAlive
+    );
+    server.dispatch(current);
+  }
+
+  // Index just past the blank line ending the header block, or -1
+  private int findHeaderEnd(int end) {
+    for (int i = 3; i < end; i++) {
+      if (
+        in.get(i) == '\n' &&
+        in.get(i - 1) == '\r' &&
+        in.get(i - 2) == '\n' &&
+        in.get(i - 3) == '\r'
+      ) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private void reject(int code) {
+    String status = switch (code) {
+      case 400 -> "400 Bad Request";
+      case 404 -> "404 Not Found";
+      case 413 -> "413 Payload Too Large";
+      case 431 -> "431 Request Header Fields Too Large";
+      default -> "501 Not Implemented";
+    };
+    byte[] response = ("HTTP/1.1 " + status + "\r\nContent-length: 0\r\nConnection: close\r\n\r\n")
+      .getBytes(StandardCharsets.ISO_8859_1);
+    closeAfterWrite = true;
+    setInterest(SelectionKey.OP_READ, false);
+    out.add(ByteBuffer.wrap(response));
+    try {
+      flush();
+    } catch (IOException e) {
+      close();
+    }
+  }
+
+  /**
+   * Queues response bytes; callable from any thread.
+   */
+  void send(List<ByteBuffer> buffers) {
+    loop.execute(() -> {
+      if (closed) {
+        buffers.forEach(server.getBufferPool()::release);
+        return;
+      }
+      out.addAll(buffers);
+      try {
+        flush();
+      } catch (IOException e) {
+        close();
+      }
+    });
+  }
+
+  /**
+   * Marks the exchange's response as fully queued; callable from any thread.
+   */
+  void complete(NioExchange exchange, boolean reuse) {
+    loop.execute(() -> {
+      if (closed || exchange != current) {
+        return;
+      }
+      current = null;
+      if (!reuse) {
+        closeAfterWrite = true;
+      }
+      if (closeAfterWrite) {
+        setInterest(SelectionKey.OP_READ, false);
+        if (out.isEmpty()) {
+          close();
+        }
+        return;
+      }
+
+      // Drop the finished request, keep whatever was pipelined behind it
+      int end = in.position();
+      if (end > requestEnd) {
+        in.flip().position(requestEnd);
+        in.compact();
+      } else {
+        in.clear();
+      }
+      if (in.position() == 0) {
+        releaseInput();
+      }
+      setInterest(SelectionKey.OP_READ, true);
+      try {
+        parse();
+      } catch (IOException e) {
+        close();
+      }
+    });
+  }
+
+  private void flush() throws IOException {
+    while (!out.isEmpty()) {
+      long written = channel.write(out.toArray(new ByteBuffer[0]));
+      while (!out.isEmpty() && !out.peekFirst().hasRemaining()) {
+        server.getBufferPool().release(out.pollFirst());
+      }
+      if (written == 0) {
+        break; // socket buffer full
+      }
+      lastActive = System.currentTimeMillis();
+    }
+    if (out.isEmpty()) {
+      setInterest(SelectionKey.OP_WRITE, false);
+      if (closeAfterWrite && current == null) {
+        close();
+      }
+    } else {
+      setInterest(SelectionKey.OP_WRITE, true);
+    }
+  }
+
+  /**
+   * Called on the loop by the idle timer.
+   *
+   * @return milliseconds until the connection may be idle-closed, or -1 if closed now
+   */
+  long checkIdle(long idleTimeoutMillis) {
+    if (closed) {
+      return -1;
+    }
+    if (current != null) {
+      return idleTimeoutMillis;
+    }
+    long idle = System.currentTimeMillis() - lastActive;
+    if (idle >= idleTimeoutMillis) {
+      close();
+      return -1;
+    }
+    return idleTimeoutMillis - idle;
+  }
+
+  void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (key != null) {
+      key.cancel();
+    }
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // already closed
+    }
+    // A running handler may still be reading its body out of this buffer
+    if (current == null) {
+      releaseInput();
+    }
+    out.forEach(server.getBufferPool()::release);
+    out.clear();
+    server.onConnectionClosed();
+  }
+
+  private void releaseInput() {
+    if (in != null) {
+      server.getBufferPool().release(in);
+      in = null;
+    }
+  }
+
+  private void setInterest(int op, boolean on) {
+    if (key == null || !key.isValid()) {
+      return;
+    }
+    int ops = key.interestOps();
+    key.interestOps(on ? (ops | op) : (ops & ~op));
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  EventLoop getLoop() {
+    return loop;
+  }
+
+  BufferPool getBufferPool() {
+    return server.getBufferPool();
+  }
+
+  InetSocketAddress getRemoteAddress() {
+    return remoteAddress;
+  }
+
+  InetSocketAddress getLocalAddress() {
+    return localAddress;
+  }
+}
@@ -0,0 +1,395 @@
+package main.java.com.checkers.http;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One request/response on an {@link HttpConnection}.
+ *
+ * The request body is a read-only view of the connection's input buffer, so
+ * handlers read it without a copy. Response bytes (headers included) are
+ * written straight into pooled direct buffers and handed to the event loop
+ * on flush or close; responses sent with length 0 use chunked encoding and
+ * every flush becomes one chunk, which is what Server-Sent Events need.
+ */
+final class NioExchange extends HttpExchange {
+
+  private final HttpConnection connection;
+  private final NioContext context;
+  private final String method;
+  private final URI uri;
+  private final String protocol;
+  private final Headers requestHeaders;
+  private final Headers responseHeaders = new Headers();
+  private final boolean keepAlive;
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+  private final ResponseStream responseStream = new ResponseStream();
+  private InputStream requestBody;
+  private OutputStream responseBody;
+  private volatile int responseCode = -1;
+
+  NioExchange(
+    HttpConnection connection,
+    NioContext context,
+    String method,
+    URI uri,
+    String protocol,
+    Headers requestHeaders,
+    ByteBuffer body,
+    boolean keepAlive
+  ) {
+    this.connection = connection;
+    this.context = context;
+    this.method = method;
+    this.uri = uri;
+    this.protocol = protocol;
+    this.requestHeaders = requestHeaders;
+    this.keepAlive = keepAlive;
+    this.requestBody = new BufferInputStream(body);
+    this.responseBody = responseStream;
+  }
+
+  @Override
+  public Headers getRequestHeaders() {
+    return requestHeaders;
+  }
+
+  @Override
+  public Headers getResponseHeaders() {
+    return responseHeaders;
+  }
+
+  @Override
+  public URI getRequestURI() {
+    return uri;
+  }
+
+  @Override
+  public String getRequestMethod() {
+    return method;
+  }
+
+  @Override
+  public HttpContext getHttpContext() {
+    return context;
+  }
+
+  @Override
+  public void close() {
+    try {
+      responseBody.close();
+    } catch (IOException e) {
+      connection.complete(this, false);
+    }
+  }
+
+  @Override
+  public InputStream getRequestBody() {
+    return requestBody;
+  }
+
+  @Override
+  public OutputStream getResponseBody() {
+    return responseBody;
+  }
+
+  @Override
+  public void sendResponseHeaders(int code, long length) throws IOException {
+    responseStream.sendHeaders(code, length);
+  }
+
+  @Override
+  public InetSocketAddress getRemoteAddress() {
+    return connection.getRemoteAddress();
+  }
+
+  @Override
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  @Override
+  public InetSocketAddress getLocalAddress() {
+    return connection.getLocalAddress();
+  }
+
+  @Override
+  public String getProtocol() {
+    return protocol;
+  }
+
+  @Override
+  public Object getAttribute(String name) {
+    return attributes.get(name);
+  }
+
+  @Override
+  public void setAttribute(String name, Object value) {
+    if (value == null) {
+      attributes.remove(name);
+    } else {
+      attributes.put(name, value);
+    }
+  }
+
+  @Override
+  public void setStreams(InputStream in, OutputStream out) {
+    if (in != null) {
+      this.requestBody = in;
+    }
+    if (out != null) {
+      this.responseBody = out;
+    }
+  }
+
+  @Override
+  public HttpPrincipal getPrincipal() {
+    return null;
+  }
+
+  // Handler threw: answer 500 if nothing was sent yet, then drop the connection
+  void abort() {
+    if (!responseStream.headersSent) {
+      try {
+        responseStream.sendHeaders(500, -1);
+      } catch (IOException ignored) {
+        // connection already gone
+      }
+    }
+    connection.complete(this, false);
+  }
+
+  private static String reason(int code) {
+    return switch (code) {
+      case 100 -> "Continue";
+      case 200 -> "OK";
+      case 202 -> "Accepted";
+      case 204 -> "No Content";
+      case 304 -> "Not Modified";
+      case 400 -> "Bad Request";
+      case 404 -> "Not Found";
+      case 405 -> "Method Not Allowed";
+      case 413 -> "Payload Too Large";
+      case 431 -> "Request Header Fields Too Large";
+      case 500 -> "Internal Server Error";
+      case 501 -> "Not Implemented";
+      case 503 -> "Service Unavailable";
+      default -> "";
+    };
+  }
+
+  /**
+   * Response body writer. Synchronized because SSE streams write from
+   * scheduler threads while the handler that opened them may still run.
+   */
+  private final class ResponseStream extends OutputStream {
+
+    private static final byte[] CRLF = { '\r', '\n' };
+    private static final byte[] LAST_CHUNK = { '0', '\r', '\n', '\r', '\n' };
+    // Hand buffers to the loop once this many are filled, even without flush()
+    private static final int MAX_PENDING = 4;
+
+    private final List<ByteBuffer> pending = new ArrayList<>();
+    private ByteBuffer current;
+    private boolean headersSent;
+    private boolean chunked;
+    private long remaining;
+    private boolean closed;
+
+    synchronized void sendHeaders(int code, long length) throws IOException {
+      if (headersSent) {
+        throw new IOException("headers already sent");
+      }
+      responseCode = code;
+      boolean noBody = code < 200 || code == 204 || code == 304 || method.equals("HEAD");
+      boolean streaming = false;
+      if (noBody) {
+        length = -1;
+      } else if (length > 0) {
+        responseHeaders.set("Content-length", Long.toString(length));
+        remaining = length;
+      } else if (length == 0) {
+        responseHeaders.set("Transfer-encoding", "chunked");
+        streaming = true;
+      } else {
+        responseHeaders.set("Content-length", "0");
+      }
+      if (!keepAlive) {
+        responseHeaders.set("Connection", "close");
+      } else if (protocol.equals("HTTP/1.0")) {
+        responseHeaders.set("Connection", "keep-alive");
+      }
+
+      StringBuilder head = new StringBuilder(256);
+      head.append("HTTP/1.1 ").append(code).append(' ').append(reason(code)).append("\r\n");
+      for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+        for (String value : header.getValue()) {
+          head.append(header.getKey()).append(": ").append(value).append("\r\n");
+        }
+      }
+      head.append("\r\n");
+      put(head.toString().getBytes(StandardCharsets.ISO_8859_1), 0, head.length());
+      headersSent = true;
+
+      if (streaming) {
+        // Headers go out on their own so that every later flush is exactly one chunk
+        sendPending();
+        chunked = true;
+      }
+      if (length == -1) {
+        close();
+      }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return;
+      }
+      if (!headersSent) {
+        throw new IOException("sendResponseHeaders() not called");
+      }
+      if (closed) {
+        throw new IOException("stream closed");
+      }
+      if (connection.isClosed()) {
+        throw new IOException("connection closed");
+      }
+      if (!chunked) {
+        if (len > remaining) {
+          throw new IOException("too many bytes to write to stream");
+        }
+        remaining -= len;
+      }
+      put(b, off, len);
+      if (pending.size() >= MAX_PENDING) {
+        sendPending();
+      }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+      if (closed || !headersSent) {
+        return;
+      }
+      if (connection.isClosed()) {
+        throw new IOException("connection closed");
+      }
+      sendPending();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (!headersSent) {
+        // Nothing was sent; the connection cannot be reused
+        connection.complete(NioExchange.this, false);
+        return;
+      }
+      sendPending();
+      if (chunked) {
+        connection.send(List.of(ByteBuffer.wrap(LAST_CHUNK)));
+      }
+      boolean complete = chunked || remaining == 0;
+      connection.complete(NioExchange.this, keepAlive && complete);
+      if (!complete) {
+        throw new IOException("insufficient bytes written to stream");
+      }
+    }
+
+    private void put(byte[] b, int off, int len) {
+      while (len > 0) {
+        if (current == null || !current.hasRemaining()) {
+          if (current != null) {
+            pending.add(current.flip());
+          }
+          current = connection.getBufferPool().acquire();
+        }
+        int n = Math.min(len, current.remaining());
+        current.put(b, off, n);
+        off += n;
+        len -= n;
+      }
+    }
+
+    private void sendPending() {
+      if (current != null && current.position() > 0) {
+        pending.add(current.flip());
+        current = null;
+      }
+      if (pending.isEmpty()) {
+        return;
+      }
+      List<ByteBuffer> buffers = new ArrayList<>(pending.size() + 2);
+      if (chunked) {
+        int size = 0;
+        for (ByteBuffer buffer : pending) {
+          size += buffer.remaining();
+        }
+        buffers.add(ByteBuffer.wrap((Integer.toHexString(size) + "\r\n").getBytes(StandardCharsets.ISO_8859_1)));
+        buffers.addAll(pending);
+        buffers.add(ByteBuffer.wrap(CRLF));
+      } else {
+        buffers.addAll(pending);
+      }
+      pending.clear();
+      connection.send(buffers);
+    }
+  }
+
+  /**
+   * Reads a request body from a buffer view.
+   */
+  private static final class BufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    BufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,249 @@
+package main.java.com.checkers.http;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import main.java.com.checkers.util.TimingWheel;
+
+/**
+ * HTTP/1.1 server on NIO selectors, usable wherever a
+ * {@link com.sun.net.httpserver.HttpServer} is, so the existing handlers run
+ * unchanged on it.
+ *
+ * One acceptor thread hands new connections round-robin to a few event-loop
+ * threads. Connections are kept alive (requests may be pipelined) and are
+ * closed after idleTimeoutMillis without traffic, tracked on a timing wheel.
+ * I/O buffers are pooled direct buffers. Handlers run on the executor set
+ * with {@link #setExecutor}, or on the loop thread if there is none.
+ */
+public class NioHttpServer extends HttpServer {
+
+  private final int loopCount;
+  private final long idleTimeoutMillis;
+  private final BufferPool bufferPool;
+  private final List<NioContext> contexts = new CopyOnWriteArrayList<>();
+  private final TimingWheel<HttpConnection> idleWheel;
+
+  private ServerSocketChannel serverChannel;
+  private InetSocketAddress address;
+  private EventLoop[] loops;
+  private Thread acceptor;
+  private volatile Executor executor;
+  private volatile boolean running;
+
+  private final AtomicInteger openConnections = new AtomicInteger();
+  private final AtomicLong acceptedConnections = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+
+  public NioHttpServer(
+    InetSocketAddress address,
+    int backlog,
+    int loopCount,
+    int bufferSize,
+    long idleTimeoutMillis
+  ) throws IOException {
+    this.loopCount = loopCount;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    // Enough idle buffers for a burst on every loop; the rest is left to the GC
+    this.bufferPool = new BufferPool(bufferSize, 256 * loopCount);
+    this.idleWheel = new TimingWheel<>(1000, this::onIdleTimer);
+    if (address != null) {
+      bind(address, backlog);
+    }
+  }
+
+  @Override
+  public void bind(InetSocketAddress address, int backlog) throws IOException {
+    if (serverChannel != null) {
+      throw new IllegalStateException("already bound");
+    }
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(address, backlog);
+    this.address = (InetSocketAddress) serverChannel.getLocalAddress();
+  }
+
+  @Override
+  public void start() {
+    if (serverChannel == null) {
+      throw new IllegalStateException("not bound");
+    }
+    running = true;
+    loops = new EventLoop[loopCount];
+    try {
+      for (int i = 0; i < loopCount; i++) {
+        loops[i] = new EventLoop(this, "http-loop-" + i);
+        loops[i].start();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to open selector", e);
+    }
+    idleWheel.start("http-idle");
+
+    acceptor = new Thread(this::acceptLoop, "http-accept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  private void acceptLoop() {
+    int next = 0;
+    while (running) {
+      try {
+        SocketChannel channel = serverChannel.accept();
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        acceptedConnections.incrementAndGet();
+        loops[next].accept(channel);
+        next = (next + 1) % loops.length;
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        System.out.println("[Error] Accept failed: " + e.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  @Override
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  @Override
+  public void stop(int delaySeconds) {
+    running = false;
+    try {
+      serverChannel.close();
+    } catch (IOException ignored) {
+      // already closed
+    }
+    if (loops != null) {
+      for (EventLoop loop : loops) {
+        loop.stop();
+      }
+    }
+    idleWheel.stop();
+  }
+
+  @Override
+  public HttpContext createContext(String path, HttpHandler handler) {
+    for (NioContext context : contexts) {
+      if (context.getPath().equals(path)) {
+        throw new IllegalArgumentException("cannot add context to list: " + path);
+      }
+    }
+    NioContext context = new NioContext(path, handler, this);
+    contexts.add(context);
+    return context;
+  }
+
+  @Override
+  public HttpContext createContext(String path) {
+    return createContext(path, null);
+  }
+
+  @Override
+  public void removeContext(String path) {
+    if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+      throw new IllegalArgumentException("cannot remove element from list");
+    }
+  }
+
+  @Override
+  public void removeContext(HttpContext context) {
+    contexts.remove(context);
+  }
+
+  @Override
+  public InetSocketAddress getAddress() {
+    return address;
+  }
+
+  // Longest matching path prefix, as in the JDK server
+  NioContext findContext(String path) {
+    NioContext best = null;
+    for (NioContext context : contexts) {
+      if (
+        path != null &&
+        path.startsWith(context.getPath()) &&
+        context.getHandler() != null &&
+        (best == null || context.getPath().length() > best.getPath().length())
+      ) {
+        best = context;
+      }
+    }
+    return best;
+  }
+
+  void dispatch(NioExchange exchange) {
+    requests.incrementAndGet();
+    Runnable task = () -> {
+      try {
+        exchange.getHttpContext().getHandler().handle(exchange);
+      } catch (Throwable t) {
+        System.out.println("[Error] Handler failed: " + t.getMessage());
+        exchange.abort();
+      }
+    };
+    Executor handlerExecutor = executor;
+    if (handlerExecutor == null) {
+      task.run();
+    } else {
+      handlerExecutor.execute(task);
+    }
+  }
+
+  void onConnectionOpened(HttpConnection connection) {
+    openConnections.incrementAndGet();
+    idleWheel.schedule(connection, idleTimeoutMillis);
+  }
+
+  void onConnectionClosed() {
+    openConnections.decrementAndGet();
+  }
+
+  private void onIdleTimer(HttpConnection connection) {
+    connection.getLoop().execute(() -> {
+      long remaining = connection.checkIdle(idleTimeoutMillis);
+      if (remaining > 0) {
+        idleWheel.schedule(connection, remaining);
+      }
+    });
+  }
+
+  boolean isRunning() {
+    return running;
+  }
+
+  BufferPool getBufferPool() {
+    return bufferPool;
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("engine", "nio");
+    stats.put("eventLoops", loopCount);
+    stats.put("openConnections", openConnections.get());
+    stats.put("acceptedConnections", acceptedConnections.get());
+    stats.put("requests", requests.get());
+    stats.put("bufferSize", bufferPool.getBufferSize());
+    stats.put("buffersAllocated", bufferPool.getAllocatedCount());
+    stats.put("buffersPooled", bufferPool.getPooledCount());
+    return stats;
+  }
+}
@@ -0,0 +1,311 @@
+package main.java.com.checkers.persist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import main.java.com.checkers.util.BinaryCodec;
+
+/**
+ * Write-behind archive of finished games.
+ *
+ * {@link #submit} only updates the running {@link GameStats} and offers the
+ * record to a bounded queue; if the queue is full the record is dropped and
+ * counted, so the request path never waits on the disk. One background
+ * thread drains the queue in batches into gzip files, flushing after every
+ * batch so a file is readable up to its last batch even if the process
+ * dies. Files roll over once they hold rollBytes of uncompressed records.
+ *
+ * Each record is {@code [u32 length][payload]}: the game's settings and
+ * outcome, then every move as a square count and square indices (see
+ * {@link BinaryCodec#squareIndex}), about 3 bytes a move before compression.
+ */
+public final class GameArchive {
+
+  private static final int FORMAT_VERSION = 1;
+  private static final String STATS_FILE = "stats.json";
+
+  private final Path dir;
+  private final long rollBytes;
+  private final ArrayBlockingQueue<GameRecord> queue;
+  private final GameStats stats = new GameStats();
+  private Thread writer;
+  private volatile boolean closing;
+
+  // Owned by the writer thread
+  private DataOutputStream out;
+  private long fileBytes;
+  private int fileSequence;
+
+  private final AtomicLong submitted = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong bytesWritten = new AtomicLong();
+  private volatile long filesOpened;
+  private volatile String currentFile;
+  private volatile String lastError;
+
+  public GameArchive(Path dir, int queueCapacity, long rollBytes) {
+    this.dir = dir;
+    this.rollBytes = rollBytes;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  /**
+   * Loads the saved totals and starts the writer.
+   */
+  public void start() throws IOException {
+    Files.createDirectories(dir);
+    stats.load(dir.resolve(STATS_FILE));
+    writer = new Thread(this::writeLoop, "game-archive");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Counts the game and queues it for writing; never blocks.
+   *
+   * @return false if the queue was full and the record was dropped
+   */
+  public boolean submit(GameRecord game) {
+    submitted.incrementAndGet();
+    stats.record(game);
+    if (!queue.offer(game)) {
+      dropped.incrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  public GameStats getGameStats() {
+    return stats;
+  }
+
+  private void writeLoop() {
+    List<GameRecord> batch = new ArrayList<>();
+    while (true) {
+      GameRecord first;
+      try {
+        first = queue.poll(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        first = null;
+      }
+      if (first == null) {
+        if (closing && queue.isEmpty()) {
+          break;
+        }
+        continue;
+      }
+      batch.add(first);
+      queue.drainTo(batch);
+      try {
+        for (GameRecord game : batch) {
+          if (out == null || fileBytes >= rollBytes) {
+            roll();
+          }
+          byte[] record = encode(game);
+          out.writeInt(record.length);
+          out.write(record);
+          fileBytes += 4 + record.length;
+          bytesWritten.addAndGet(4 + record.length);
+        }
+        out.flush();
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        stats.save(dir.resolve(STATS_FILE));
+      } catch (IOException e) {
+        lastError = e.getMessage();
+        System.out.println("[Error] Game archive write failed: " + e.getMessage());
+        closeFile();
+      }
+      batch.clear();
+    }
+    closeFile();
+    try {
+      stats.save(dir.resolve(STATS_FILE));
+    } catch (IOException e) {
+      System.out.println("[Error] Could not save game stats: " + e.getMessage());
+    }
+  }
+
+  private void roll() throws IOException {
+    closeFile();
+    String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+    Path file = dir.resolve("games-" + stamp + "-" + (fileSequence++) + ".bin.gz");
+    OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW);
+    // Sync flush, so every batch is complete in the file once flushed
+    out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream, 8192, true), 64 * 1024));
+    fileBytes = 0;
+    filesOpened++;
+    currentFile = file.getFileName().toString();
+  }
+
+  private void closeFile() {
+    if (out == null) {
+      return;
+    }
+    try {
+      out.close();
+    } catch (IOException e) {
+      System.out.println("[Error] Could not close game archive file: " + e.getMessage());
+    }
+    out = null;
+  }
+
+  static byte[] encode(GameRecord game) {
+    byte[] id = game.connectionId().getBytes(StandardCharsets.ISO_8859_1);
+    int size = 1 + 1 + id.length + 8 + 8 + 4 + 8 + 4 + 17 + 4;
+    for (int[] move : game.moves()) {
+      size += 1 + move.length / 2;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.put((byte) FORMAT_VERSION);
+    buffer.put((byte) id.length).put(id);
+    buffer.putLong(game.startedAt());
+    buffer.putLong(game.finishedAt());
+    buffer.put((byte) game.difficulty());
+    buffer.put((byte) game.playerColor());
+    buffer.put((byte) game.winner());
+    buffer.put((byte) game.startSide());
+    buffer.putLong(game.aiThinkMillis());
+    buffer.putInt(game.aiMoves());
+    if (game.startBoard() == null) {
+      buffer.put((byte) 0);
+      buffer.position(buffer.position() + 16);
+    } else {
+      buffer.put((byte) 1);
+      byte[] squares = new byte[16];
+      BinaryCodec.packSquares(game.startBoard(), squares, 0);
+      buffer.put(squares);
+    }
+    buffer.putInt(game.moves().size());
+    for (int[] move : game.moves()) {
+      buffer.put((byte) (move.length / 2));
+      for (int i = 0; i < move.length; i += 2) {
+        buffer.put((byte) BinaryCodec.squareIndex(move[i], move[i + 1]));
+      }
+    }
+    return buffer.array();
+  }
+
+  static GameRecord decode(byte[] record) throws IOException {
+    ByteBuffer in = ByteBuffer.wrap(record);
+    if (in.get() != FORMAT_VERSION) {
+      throw new IOException("Unknown game record format");
+    }
+    byte[] id = new byte[in.get() & 0xFF];
+    in.get(id);
+    long startedAt = in.getLong();
+    long finishedAt = in.getLong();
+    int difficulty = in.get();
+    int playerColor = in.get();
+    int winner = in.get();
+    int startSide = in.get();
+    long aiThinkMillis = in.getLong();
+    int aiMoves = in.getInt();
+    boolean hasStartBoard = in.get() != 0;
+    int[][] startBoard = hasStartBoard ? BinaryCodec.unpackSquares(record, in.position()) : null;
+    in.position(in.position() + 16);
+    int count = in.getInt();
+    List<int[]> moves = new ArrayList<>(count);
+    for (int m = 0; m < count; m++) {
+      int squares = in.get();
+      int[] path = new int[squares * 2];
+      for (int i = 0; i < squares; i++) {
+        int square = in.get();
+        int row = square / 4;
+        path[2 * i] = row;
+        path[2 * i + 1] = (square % 4) * 2 + (row % 2);
+      }
+      moves.add(path);
+    }
+    return new GameRecord(
+      new String(id, StandardCharsets.ISO_8859_1),
+      startedAt,
+      finishedAt,
+      difficulty,
+      playerColor,
+      winner,
+      aiThinkMillis,
+      aiMoves,
+      startBoard,
+      startSide,
+      moves
+    );
+  }
+
+  /**
+   * Reads every complete record of an archive file; a file cut short by a
+   * crash yields the records before the cut.
+   */
+  public static List<GameRecord> read(Path file) throws IOException {
+    List<GameRecord> games = new ArrayList<>();
+    try (InputStream stream = Files.newInputStream(file)) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+      while (true) {
+        int length;
+        try {
+          length = in.readInt();
+          byte[] record = new byte[length];
+          in.readFully(record);
+          games.add(decode(record));
+        } catch (EOFException e) {
+          break;
+        }
+      }
+    } catch (EOFException e) {
+      // unfinished gzip trailer: keep what was read
+    }
+    return games;
+  }
+
+  public void close() {
+    closing = true;
+    if (writer != null) {
+      writer.interrupt();
+      try {
+        writer.join(10000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("dir", dir.toString());
+    stats.put("submitted", submitted.get());
+    stats.put("written", written.get());
+    stats.put("dropped", dropped.get());
+    stats.put("queued", queue.size());
+    stats.put("batches", batches.get());
+    stats.put("bytesWritten", bytesWritten.get());
+    stats.put("filesOpened", filesOpened);
+    stats.put("currentFile", currentFile);
+    if (lastError != null) {
+      stats.put("lastError", lastError);
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,34 @@
+package main.java.com.checkers.persist;
+
+import java.util.List;
+
+/**
+ * One finished game, as stored in the archive.
+ *
+ * @param winner      RED (1) or BLACK (3), or 0 for a draw
+ * @param startBoard  the position the record starts from, or null for the
+ *                    usual opening setup (a game restored after a restart
+ *                    starts from the restored position)
+ * @param startSide   side to move in the starting position
+ * @param moves       every move as {row0, col0, row1, col1, ...}
+ */
+public record GameRecord(
+  String connectionId,
+  long startedAt,
+  long finishedAt,
+  int difficulty,
+  int playerColor,
+  int winner,
+  long aiThinkMillis,
+  int aiMoves,
+  int[][] startBoard,
+  int startSide,
+  List<int[]> moves
+) {
+
+  public static final int DRAW = 0;
+
+  public int aiColor() {
+    return (playerColor == 3) ? 1 : 3;
+  }
+}
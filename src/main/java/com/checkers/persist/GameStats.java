@@ -0,0 +1,161 @@
+package main.java.com.checkers.persist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import main.java.com.checkers.util.JsonReader;
+import main.java.com.checkers.util.JsonWriter;
+
+/**
+ * Running totals over finished games, per difficulty and player color,
+ * updated as each game finishes so reading them never touches the archive.
+ *
+ * Totals are persisted as a small JSON file next to the archive and loaded
+ * back at startup.
+ */
+public final class GameStats {
+
+  private static final int[] DIFFICULTIES = { 1, 2, 3 };
+  private static final int[] COLORS = { 1, 3 };
+  private static final String[] COLOR_NAMES = { "red", "black" };
+  // Game length histogram, upper bounds in plies; the last bucket is open
+  private static final int[] LENGTH_BUCKETS = { 20, 40, 60, 80, 120 };
+  private static final String[] LENGTH_LABELS = { "<20", "<40", "<60", "<80", "<120", ">=120" };
+
+  // Counters per cell (difficulty x color)
+  private static final int WINS = 0;
+  private static final int DRAWS = 1;
+  private static final int LOSSES = 2;
+  private static final int PLIES = 3;
+  private static final int AI_MOVES = 4;
+  private static final int AI_THINK_MS = 5;
+  private static final int DURATION_MS = 6;
+  private static final int LENGTHS = 7;
+  private static final int FIELDS = LENGTHS + LENGTH_LABELS.length;
+  private static final String[] FIELD_NAMES = {
+    "wins", "draws", "losses", "plies", "aiMoves", "aiThinkMs", "durationMs",
+  };
+
+  private final AtomicLongArray counters =
+    new AtomicLongArray(DIFFICULTIES.length * COLORS.length * FIELDS);
+
+  /**
+   * Adds a finished game; wins and losses are from the player's side.
+   */
+  public void record(GameRecord game) {
+    int cell = cell(game.difficulty(), game.playerColor());
+    if (cell < 0) {
+      return;
+    }
+    int base = cell * FIELDS;
+    int outcome = (game.winner() == GameRecord.DRAW)
+      ? DRAWS
+      : (game.winner() == game.playerColor()) ? WINS : LOSSES;
+    counters.incrementAndGet(base + outcome);
+    counters.addAndGet(base + PLIES, game.moves().size());
+    counters.addAndGet(base + AI_MOVES, game.aiMoves());
+    counters.addAndGet(base + AI_THINK_MS, game.aiThinkMillis());
+    counters.addAndGet(base + DURATION_MS, Math.max(0, game.finishedAt() - game.startedAt()));
+    counters.incrementAndGet(base + LENGTHS + lengthBucket(game.moves().size()));
+  }
+
+  private static int cell(int difficulty, int playerColor) {
+    int d = difficulty - 1;
+    int c = (playerColor == 1) ? 0 : (playerColor == 3) ? 1 : -1;
+    if (d < 0 || d >= DIFFICULTIES.length || c < 0) {
+      return -1;
+    }
+    return d * COLORS.length + c;
+  }
+
+  private static int lengthBucket(int plies) {
+    for (int i = 0; i < LENGTH_BUCKETS.length; i++) {
+      if (plies < LENGTH_BUCKETS[i]) {
+        return i;
+      }
+    }
+    return LENGTH_BUCKETS.length;
+  }
+
+  /**
+   * Totals by difficulty, then by the player's color, with derived averages.
+   */
+  public Map<String, Object> toData() {
+    Map<String, Object> data = new LinkedHashMap<>();
+    long total = 0;
+    for (int d = 0; d < DIFFICULTIES.length; d++) {
+      Map<String, Object> byColor = new LinkedHashMap<>();
+      for (int c = 0; c < COLORS.length; c++) {
+        int base = (d * COLORS.length + c) * FIELDS;
+        long games = counters.get(base + WINS) + counters.get(base + DRAWS) + counters.get(base + LOSSES);
+        total += games;
+        Map<String, Object> cell = new LinkedHashMap<>();
+        cell.put("games", games);
+        for (int f = 0; f < FIELD_NAMES.length; f++) {
+          cell.put(FIELD_NAMES[f], counters.get(base + f));
+        }
+        long aiMoves = counters.get(base + AI_MOVES);
+        cell.put("avgPlies", (games == 0) ? 0.0 : (double) counters.get(base + PLIES) / games);
+        cell.put("avgAiThinkMs", (aiMoves == 0) ? 0.0 : (double) counters.get(base + AI_THINK_MS) / aiMoves);
+        Map<String, Object> lengths = new LinkedHashMap<>();
+        for (int i = 0; i < LENGTH_LABELS.length; i++) {
+          lengths.put(LENGTH_LABELS[i], counters.get(base + LENGTHS + i));
+        }
+        cell.put("plyHistogram", lengths);
+        byColor.put(COLOR_NAMES[c], cell);
+      }
+      data.put(String.valueOf(DIFFICULTIES[d]), byColor);
+    }
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("games", total);
+    stats.put("byDifficulty", data);
+    return stats;
+  }
+
+  /**
+   * Writes the raw counters atomically.
+   */
+  public void save(Path file) throws IOException {
+    JsonWriter out = new JsonWriter();
+    out.beginObject();
+    out.name("version").value(1L);
+    out.name("fields").value((long) FIELDS);
+    out.name("counters").beginArray();
+    for (int i = 0; i < counters.length(); i++) {
+      out.value(counters.get(i));
+    }
+    out.endArray();
+    out.endObject();
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.write(tmp, out.toByteArray());
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Loads counters saved by {@link #save}; a file from a different layout
+   * is ignored.
+   */
+  public void load(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return;
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    JsonReader reader = new JsonReader();
+    reader.reset(bytes, 0, bytes.length);
+    if (!(reader.readValue() instanceof Map<?, ?> saved)) {
+      return;
+    }
+    if (!Long.valueOf(FIELDS).equals(saved.get("fields")) || !(saved.get("counters") instanceof List<?> values)) {
+      System.out.println("[Warning] Ignoring game stats saved with a different layout");
+      return;
+    }
+    for (int i = 0; i < Math.min(values.size(), counters.length()); i++) {
+      counters.set(i, ((Number) values.get(i)).longValue());
+    }
+  }
+}
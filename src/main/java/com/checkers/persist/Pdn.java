@@ -0,0 +1,113 @@
+package main.java.com.checkers.persist;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Portable Draughts Notation for archived games.
+ *
+ * Squares are numbered 1-32 row by row from the top-left dark square, so
+ * BLACK starts on 1-12 and RED on 21-32. RED, which moves first here, is
+ * written as White; results read White-Black.
+ *
+ * Run as a program to convert archive files: {@code Pdn archive/games-*.bin.gz}
+ */
+public final class Pdn {
+
+  private Pdn() {}
+
+  public static String format(GameRecord game) {
+    StringBuilder out = new StringBuilder(512);
+    String ai = "AI (difficulty " + game.difficulty() + ")";
+    tag(out, "Event", "Checkers");
+    tag(out, "Date", new SimpleDateFormat("yyyy.MM.dd").format(new Date(game.startedAt())));
+    tag(out, "White", (game.playerColor() == 1) ? "Player" : ai);
+    tag(out, "Black", (game.playerColor() == 3) ? "Player" : ai);
+    tag(out, "Result", result(game.winner()));
+    tag(out, "GameType", "21");
+    if (game.startBoard() != null) {
+      tag(out, "SetUp", "1");
+      tag(out, "FEN", fen(game.startBoard(), game.startSide()));
+    }
+
+    int number = 1;
+    boolean whiteToMove = game.startSide() != 3;
+    if (!whiteToMove && !game.moves().isEmpty()) {
+      out.append("1... ");
+    }
+    for (int[] move : game.moves()) {
+      if (whiteToMove) {
+        out.append(number).append(". ");
+      }
+      boolean capture = Math.abs(move[2] - move[0]) == 2;
+      for (int i = 0; i < move.length; i += 2) {
+        if (i > 0) {
+          out.append(capture ? 'x' : '-');
+        }
+        out.append(square(move[i], move[i + 1]));
+      }
+      out.append(' ');
+      if (!whiteToMove) {
+        number++;
+      }
+      whiteToMove = !whiteToMove;
+    }
+    out.append(result(game.winner())).append("\n\n");
+    return out.toString();
+  }
+
+  private static void tag(StringBuilder out, String name, String value) {
+    out.append('[').append(name).append(" \"").append(value).append("\"]\n");
+  }
+
+  private static String result(int winner) {
+    return switch (winner) {
+      case 1 -> "1-0";
+      case 3 -> "0-1";
+      default -> "1/2-1/2";
+    };
+  }
+
+  private static int square(int row, int col) {
+    return row * 4 + col / 2 + 1;
+  }
+
+  private static String fen(int[][] board, int sideToMove) {
+    List<String> white = new ArrayList<>();
+    List<String> black = new ArrayList<>();
+    for (int row = 0; row < 8; row++) {
+      for (int col = row % 2; col < 8; col += 2) {
+        int piece = board[row][col];
+        String square = String.valueOf(square(row, col));
+        switch (piece) {
+          case 1 -> white.add(square);
+          case 2 -> white.add("K" + square);
+          case 3 -> black.add(square);
+          case 4 -> black.add("K" + square);
+          default -> {
+            // empty
+          }
+        }
+      }
+    }
+    return ((sideToMove == 3) ? "B" : "W") +
+      ":W" + String.join(",", white) +
+      ":B" + String.join(",", black);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.out.println("Usage: Pdn <archive file>...");
+      return;
+    }
+    for (String file : args) {
+      for (GameRecord game : GameArchive.read(Path.of(file))) {
+        System.out.print(format(game));
+      }
+    }
+  }
+}
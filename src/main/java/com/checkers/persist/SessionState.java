@@ -0,0 +1,21 @@
+package main.java.com.checkers.persist;
+
+/**
+ * Everything needed to rebuild one session after a restart: its identity,
+ * the game settings and the position itself.
+ *
+ * @param started     whether the session has an active game (see /start)
+ * @param inProgress  false once the game has been won or drawn
+ * @param board       8x8 piece codes; captured by value when journaled
+ */
+public record SessionState(
+  String connectionId,
+  long createdAt,
+  boolean started,
+  boolean inProgress,
+  int difficulty,
+  int playerColor,
+  int sideToMove,
+  long version,
+  int[][] board
+) {}
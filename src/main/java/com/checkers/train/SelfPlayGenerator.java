@@ -0,0 +1,209 @@
+package main.java.com.checkers.train;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import main.java.com.checkers.ai.MonteCarloTreeSearch;
+import main.java.com.checkers.ai.NetworkWeights;
+import main.java.com.checkers.ai.NeuralEvaluator;
+import main.java.com.checkers.ai.SearchCache;
+import main.java.com.checkers.ai.SearchSnapshot;
+import main.java.com.checkers.game.Checkers;
+import main.java.com.checkers.game.CheckersData;
+import main.java.com.checkers.game.CheckersMove;
+
+/**
+ * Headless self-play: engine-versus-engine games on every core, each
+ * position recorded with the root visit distribution and, once the game is
+ * over, its outcome. Finished games go to a {@link ShardWriter}.
+ *
+ * The first RANDOM_PLIES moves of each game are drawn from the visit
+ * distribution instead of taking the most visited move, so games spread out
+ * from the opening. Games still running after MAX_PLIES count as draws.
+ *
+ * Usage: SelfPlayGenerator [outDir] [games] [threads] [network|rollout]
+ *        [difficulty] [msPerMove] [shardMB] [weights file]
+ */
+public class SelfPlayGenerator {
+
+  private static final int MAX_PLIES = 150;
+  private static final int RANDOM_PLIES = 8;
+
+  public static void main(String[] args) throws Exception {
+    Path outDir = Path.of(args.length > 0 ? args[0] : "selfplay");
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+    boolean network = args.length <= 3 || args[3].equalsIgnoreCase("network");
+    int difficulty = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+    long msPerMove = args.length > 5 ? Long.parseLong(args[5]) : 0;
+    long shardBytes = (args.length > 6 ? Long.parseLong(args[6]) : 64) << 20;
+    NetworkWeights weights = null;
+    if (network) {
+      weights = (args.length > 7 && Files.exists(Path.of(args[7])))
+        ? NetworkWeights.load(Path.of(args[7]))
+        : NetworkWeights.material(64, 32);
+    }
+    System.out.printf(
+      "out=%s games=%d threads=%d engine=%s difficulty=%d msPerMove=%d shardMB=%d%n",
+      outDir, games, threads, network ? "network" : "rollout", difficulty, msPerMove, shardBytes >> 20
+    );
+    SearchCache.shared().setEnabled(false);
+
+    String prefix = "selfplay-" + System.currentTimeMillis();
+    ShardWriter writer = new ShardWriter(outDir, prefix, shardBytes, 256);
+    writer.start();
+
+    AtomicInteger nextGame = new AtomicInteger();
+    AtomicLong positions = new AtomicLong();
+    long[] results = new long[3];
+    NetworkWeights shared = weights;
+    long start = System.nanoTime();
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      Thread worker = new Thread(() -> {
+        try {
+          while (nextGame.getAndIncrement() < games) {
+            List<TrainingRecord> game = playGame(shared, difficulty, msPerMove);
+            positions.addAndGet(game.size());
+            int outcome = game.isEmpty() ? 0 : game.get(0).outcome(); // for RED, who moves first
+            synchronized (results) {
+              results[outcome + 1]++;
+            }
+            writer.submit(game);
+          }
+        } catch (Exception e) {
+          System.out.println("[Error] Self-play worker failed: " + e);
+        }
+      }, "self-play-" + t);
+      worker.start();
+      workers.add(worker);
+    }
+
+    long lastReport = start;
+    while (workers.stream().anyMatch(Thread::isAlive)) {
+      Thread.sleep(200);
+      long now = System.nanoTime();
+      if (now - lastReport > 5_000_000_000L) {
+        lastReport = now;
+        System.out.printf(
+          "%d games, %d positions, %.0f positions/s%n",
+          Math.min(games, nextGame.get()), positions.get(), positions.get() / ((now - start) / 1e9)
+        );
+      }
+    }
+    writer.close();
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+      "%n%d games (RED %d wins, %d draws, %d losses), %d positions in %.1f s%n",
+      games, results[2], results[1], results[0], writer.getRecords(), seconds
+    );
+    System.out.printf(
+      "%.0f positions/s, %.1f bytes/position, %s%n",
+      writer.getRecords() / seconds,
+      (double) writer.getBytes() / Math.max(1, writer.getRecords()),
+      writer.getStats()
+    );
+  }
+
+  private static List<TrainingRecord> playGame(NetworkWeights weights, int difficulty, long msPerMove) {
+    MonteCarloTreeSearch[] engines = {
+      new MonteCarloTreeSearch(CheckersData.RED, difficulty, weights),
+      new MonteCarloTreeSearch(CheckersData.BLACK, difficulty, weights),
+    };
+    if (msPerMove > 0) {
+      for (MonteCarloTreeSearch engine : engines) {
+        engine.setMaxIterations(Integer.MAX_VALUE);
+        engine.setTimeBudgetMillis(msPerMove);
+      }
+    }
+
+    Checkers setup = new Checkers();
+    setup.intializeBoard();
+    CheckersData board = setup.getCheckersData();
+    List<long[]> squares = new ArrayList<>();
+    List<int[]> indices = new ArrayList<>();
+    List<float[]> shares = new ArrayList<>();
+    int side = CheckersData.RED;
+    int winner = 0;
+    for (int ply = 0; ply < MAX_PLIES; ply++) {
+      CheckersMove[] legal = board.getLegalMovesMap(side).values().stream()
+        .flatMap(Collection::stream)
+        .filter(move -> move != null && move.getSize() > 1)
+        .toArray(CheckersMove[]::new);
+      if (legal.length == 0) {
+        winner = opponent(side);
+        break;
+      }
+      MonteCarloTreeSearch engine = engines[(side == CheckersData.RED) ? 0 : 1];
+      engine.setCheckersData(board.clone(), side);
+      CheckersMove best = engine.makeMove(legal);
+
+      // Root visit distribution as policy targets
+      List<SearchSnapshot.RootMove> root = engine.getLatestSnapshot().getRootMoves();
+      int[] index = new int[root.size()];
+      float[] share = new float[root.size()];
+      long total = 0;
+      for (SearchSnapshot.RootMove move : root) {
+        total += move.visits();
+      }
+      for (int i = 0; i < root.size(); i++) {
+        int[][] path = root.get(i).path();
+        index[i] = NeuralEvaluator.policyIndex(path[0][0], path[0][1], path[1][0], path[1][1], side);
+        share[i] = (total == 0) ? 1f / root.size() : (float) root.get(i).visits() / total;
+      }
+      squares.add(board.packedSquares());
+      indices.add(index);
+      shares.add(share);
+
+      CheckersMove move = (ply < RANDOM_PLIES) ? sample(legal, root, total, best) : best;
+      board.applyMove(move);
+      side = opponent(side);
+    }
+
+    List<TrainingRecord> records = new ArrayList<>(squares.size());
+    int mover = CheckersData.RED;
+    for (int ply = 0; ply < squares.size(); ply++) {
+      int outcome = (winner == 0) ? 0 : (winner == mover) ? 1 : -1;
+      long[] packed = squares.get(ply);
+      records.add(new TrainingRecord(packed[0], packed[1], mover, outcome, ply, indices.get(ply), shares.get(ply)));
+      mover = opponent(mover);
+    }
+    return records;
+  }
+
+  // A root move drawn in proportion to its visits
+  private static CheckersMove sample(
+    CheckersMove[] legal,
+    List<SearchSnapshot.RootMove> root,
+    long total,
+    CheckersMove fallback
+  ) {
+    if (total <= 0) {
+      return fallback;
+    }
+    long pick = ThreadLocalRandom.current().nextLong(total);
+    for (SearchSnapshot.RootMove move : root) {
+      pick -= move.visits();
+      if (pick < 0) {
+        for (CheckersMove candidate : legal) {
+          if (Arrays.deepEquals(candidate.toPath(), move.path())) {
+            return candidate;
+          }
+        }
+        break;
+      }
+    }
+    return fallback;
+  }
+
+  private static int opponent(int side) {
+    return (side == CheckersData.RED) ? CheckersData.BLACK : CheckersData.RED;
+  }
+}
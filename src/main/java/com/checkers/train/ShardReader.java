@@ -0,0 +1,97 @@
+package main.java.com.checkers.train;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Replays a shard written by {@link ShardWriter} through a read-only memory
+ * map, so the page cache serves the data and nothing is copied on the heap
+ * beyond the records themselves.
+ *
+ * Run as a program to check shards and time a full replay:
+ * {@code ShardReader selfplay/*.shard}
+ */
+public final class ShardReader {
+
+  private final MappedByteBuffer map;
+  private final int declaredRecords;
+
+  private ShardReader(MappedByteBuffer map, int declaredRecords) {
+    this.map = map;
+    this.declaredRecords = declaredRecords;
+  }
+
+  public static ShardReader open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (map.limit() < ShardWriter.HEADER_BYTES || map.getInt(0) != ShardWriter.MAGIC) {
+        throw new IOException(file + " is not a training shard");
+      }
+      if (map.getInt(4) != ShardWriter.FORMAT_VERSION) {
+        throw new IOException("Unsupported shard version in " + file);
+      }
+      return new ShardReader(map, map.getInt(8));
+    }
+  }
+
+  /**
+   * @return the record count from the header, or 0 if the shard was never
+   *         closed
+   */
+  public int getDeclaredRecords() {
+    return declaredRecords;
+  }
+
+  /**
+   * Decodes every complete record in file order.
+   *
+   * @return the number of records read
+   */
+  public int forEach(Consumer<TrainingRecord> action) {
+    ByteBuffer in = map.duplicate();
+    in.position(ShardWriter.HEADER_BYTES);
+    int count = 0;
+    while (in.remaining() >= 2) {
+      int length = in.getShort() & 0xFFFF;
+      if (length == 0 || length > in.remaining()) {
+        break;
+      }
+      int end = in.position() + length;
+      action.accept(TrainingRecord.decode(in));
+      in.position(end);
+      count++;
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.out.println("Usage: ShardReader <shard file>...");
+      return;
+    }
+    long start = System.nanoTime();
+    long records = 0;
+    long bytes = 0;
+    long[] outcomes = new long[3];
+    for (String name : args) {
+      ShardReader reader = open(Path.of(name));
+      int read = reader.forEach(record -> outcomes[record.outcome() + 1]++);
+      if (reader.getDeclaredRecords() != 0 && reader.getDeclaredRecords() != read) {
+        System.out.printf("%s: header says %d records, read %d%n", name, reader.getDeclaredRecords(), read);
+      }
+      records += read;
+      bytes += reader.map.limit();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+      "%d records in %d shards, %.1f MB: %d won, %d drawn, %d lost by the side to move%n",
+      records, args.length, bytes / 1e6, outcomes[2], outcomes[1], outcomes[0]
+    );
+    System.out.printf("replayed in %.3f s, %.0f records/s%n", seconds, records / Math.max(seconds, 1e-9));
+  }
+}
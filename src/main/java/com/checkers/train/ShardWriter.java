@@ -0,0 +1,183 @@
+package main.java.com.checkers.train;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams training records into shard files from a single writer thread.
+ *
+ * Producers hand over whole games through a bounded queue and block when it
+ * is full, so generation cannot outrun the disk. Each shard is a 16 byte
+ * header (magic "CKSP", version, record count, reserved) followed by
+ * {@code [u16 length][record]} entries, and is closed once the next record
+ * would take it past shardBytes. The record count is filled in when a shard
+ * is closed; a reader of an unfinished shard stops at the end of the file.
+ */
+public final class ShardWriter {
+
+  static final int MAGIC = 0x434B5350;
+  static final int FORMAT_VERSION = 1;
+  static final int HEADER_BYTES = 16;
+
+  private static final List<TrainingRecord> END = new ArrayList<>();
+
+  private final Path dir;
+  private final String prefix;
+  private final long shardBytes;
+  private final ArrayBlockingQueue<List<TrainingRecord>> queue;
+  private Thread writer;
+
+  // Owned by the writer thread
+  private FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+  private long shardSize;
+  private int shardRecords;
+  private int shardSequence;
+
+  private volatile long records;
+  private volatile long bytes;
+  private volatile int shards;
+  private volatile IOException failure;
+
+  public ShardWriter(Path dir, String prefix, long shardBytes, int queueCapacity) {
+    this.dir = dir;
+    this.prefix = prefix;
+    this.shardBytes = Math.max(HEADER_BYTES + 1024, shardBytes);
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+  }
+
+  public void start() throws IOException {
+    Files.createDirectories(dir);
+    writer = new Thread(this::writeLoop, "shard-writer");
+    writer.start();
+  }
+
+  /**
+   * Queues one game's records, waiting while the queue is full.
+   */
+  public void submit(List<TrainingRecord> game) throws InterruptedException, IOException {
+    if (failure != null) {
+      throw failure;
+    }
+    queue.put(game);
+  }
+
+  private void writeLoop() {
+    List<List<TrainingRecord>> batch = new ArrayList<>();
+    try {
+      while (true) {
+        List<TrainingRecord> first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch);
+        for (List<TrainingRecord> game : batch) {
+          if (game == END) {
+            closeShard();
+            return;
+          }
+          for (TrainingRecord record : game) {
+            write(record);
+          }
+        }
+        batch.clear();
+      }
+    } catch (IOException e) {
+      failure = e;
+      System.out.println("[Error] Shard write failed: " + e.getMessage());
+      queue.clear();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void write(TrainingRecord record) throws IOException {
+    int size = 2 + record.encodedSize();
+    if (channel == null || shardSize + size > shardBytes) {
+      openShard();
+    }
+    if (buffer.remaining() < size) {
+      flush();
+    }
+    buffer.putShort((short) record.encodedSize());
+    record.encode(buffer);
+    shardSize += size;
+    shardRecords++;
+    records++;
+    bytes += size;
+  }
+
+  private void openShard() throws IOException {
+    closeShard();
+    Path file = dir.resolve(String.format("%s-%05d.shard", prefix, shardSequence++));
+    channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    buffer.clear();
+    buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(0).putInt(0);
+    shardSize = HEADER_BYTES;
+    shardRecords = 0;
+    shards++;
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private void closeShard() throws IOException {
+    if (channel == null) {
+      return;
+    }
+    flush();
+    ByteBuffer count = ByteBuffer.allocate(4).putInt(0, shardRecords);
+    channel.write(count, 8);
+    channel.close();
+    channel = null;
+  }
+
+  /**
+   * Writes everything queued, closes the last shard and stops the writer.
+   */
+  public void close() throws InterruptedException, IOException {
+    if (writer == null) {
+      return;
+    }
+    if (failure == null) {
+      queue.put(END);
+    }
+    writer.join();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("records", records);
+    stats.put("bytes", bytes);
+    stats.put("shards", shards);
+    stats.put("queued", queue.size());
+    return stats;
+  }
+
+  public long getRecords() {
+    return records;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+}
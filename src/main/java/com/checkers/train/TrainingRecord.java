@@ -0,0 +1,68 @@
+package main.java.com.checkers.train;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One labeled position from self-play: the board, the side to move, the
+ * search's root visit distribution and how the game ended for the side to
+ * move.
+ *
+ * Encoded as 16 bytes of packed squares (see CheckersData.packedSquares),
+ * side, outcome, ply, move count, then per move its policy index (see
+ * NeuralEvaluator.policyIndex) and its visit share scaled to 0-65535;
+ * 21 + 3n bytes.
+ *
+ * @param outcome 1 if the side to move went on to win, -1 if it lost, 0 for
+ *                a draw
+ */
+public record TrainingRecord(
+  long squaresLow,
+  long squaresHigh,
+  int side,
+  int outcome,
+  int ply,
+  int[] policyIndex,
+  float[] policyShare
+) {
+
+  public int encodedSize() {
+    return 21 + 3 * policyIndex.length;
+  }
+
+  public void encode(ByteBuffer out) {
+    out.putLong(squaresLow);
+    out.putLong(squaresHigh);
+    out.put((byte) side);
+    out.put((byte) outcome);
+    out.putShort((short) ply);
+    out.put((byte) policyIndex.length);
+    for (int i = 0; i < policyIndex.length; i++) {
+      out.put((byte) policyIndex[i]);
+      out.putShort((short) Math.round(Math.min(1f, Math.max(0f, policyShare[i])) * 65535));
+    }
+  }
+
+  public static TrainingRecord decode(ByteBuffer in) {
+    long low = in.getLong();
+    long high = in.getLong();
+    int side = in.get();
+    int outcome = in.get();
+    int ply = in.getShort() & 0xFFFF;
+    int moves = in.get() & 0xFF;
+    int[] index = new int[moves];
+    float[] share = new float[moves];
+    for (int i = 0; i < moves; i++) {
+      index[i] = in.get() & 0xFF;
+      share[i] = (in.getShort() & 0xFFFF) / 65535f;
+    }
+    return new TrainingRecord(low, high, side, outcome, ply, index, share);
+  }
+
+  /**
+   * Piece on a dark square 0-31 (row * 4 + col / 2).
+   */
+  public int pieceAt(int square) {
+    long half = (square < 16) ? squaresLow : squaresHigh;
+    return (int) (half >>> ((square & 15) * 4)) & 0x0F;
+  }
+}
@@ -0,0 +1,108 @@
+package main.java.com.checkers.util;
+
+import java.util.List;
+
+/**
+ * Compact binary encoding of board and move payloads, served to clients that
+ * send {@code Accept: application/x-checkers}. JSON remains the default.
+ *
+ * Only the 32 dark squares (row % 2 == col % 2) can hold a piece, so a
+ * square is addressed by its index {@code row * 4 + col / 2} (0..31).
+ *
+ * Every frame starts with a 7 byte header:
+ * <pre>
+ *   0     format version (currently 1)
+ *   1     frame type (1 = board, 2 = moves)
+ *   2     side to move (0 = no game, 1 = RED, 3 = BLACK)
+ *   3..6  position version, unsigned 32-bit big-endian
+ * </pre>
+ * A board frame follows with 16 bytes: one nibble per square holding the
+ * piece code (EMPTY 0, RED 1, RED_KING 2, BLACK 3, BLACK_KING 4), square 0
+ * in the high nibble of the first byte. 23 bytes in total.
+ *
+ * A moves frame follows with the origin square, a destination count and
+ * one byte per destination square.
+ */
+public final class BinaryCodec {
+
+    public static final String CONTENT_TYPE = "application/x-checkers";
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int TYPE_BOARD = 1;
+    public static final int TYPE_MOVES = 2;
+
+    private static final int HEADER_BYTES = 7;
+
+    private BinaryCodec() {}
+
+    public static int squareIndex(int row, int col) {
+        return row * 4 + col / 2;
+    }
+
+    public static byte[] encodeBoard(int[][] board, int sideToMove, long version) {
+        byte[] out = new byte[HEADER_BYTES + 16];
+        writeHeader(out, TYPE_BOARD, sideToMove, version);
+        packSquares(board, out, HEADER_BYTES);
+        return out;
+    }
+
+    /**
+     * Writes the 16 byte nibble form of a board (see above) at out[offset].
+     */
+    public static void packSquares(int[][] board, byte[] out, int offset) {
+        for (int row = 0; row < 8; row++) {
+            int[] cells = board[row];
+            for (int col = row % 2; col < 8; col += 2) {
+                int square = squareIndex(row, col);
+                int piece = cells[col] & 0x0F;
+                out[offset + (square >> 1)] |= (byte) ((square & 1) == 0 ? piece << 4 : piece);
+            }
+        }
+    }
+
+    /**
+     * Reads a board written by {@link #packSquares}.
+     */
+    public static int[][] unpackSquares(byte[] in, int offset) {
+        int[][] board = new int[8][8];
+        for (int row = 0; row < 8; row++) {
+            for (int col = row % 2; col < 8; col += 2) {
+                int square = squareIndex(row, col);
+                int packed = in[offset + (square >> 1)];
+                board[row][col] = ((square & 1) == 0 ? packed >> 4 : packed) & 0x0F;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @param destinations {row, col} pairs reachable from the origin square
+     */
+    public static byte[] encodeMoves(
+        int fromRow,
+        int fromCol,
+        List<int[]> destinations,
+        int sideToMove,
+        long version
+    ) {
+        byte[] out = new byte[HEADER_BYTES + 2 + destinations.size()];
+        writeHeader(out, TYPE_MOVES, sideToMove, version);
+        out[HEADER_BYTES] = (byte) squareIndex(fromRow, fromCol);
+        out[HEADER_BYTES + 1] = (byte) destinations.size();
+        for (int i = 0; i < destinations.size(); i++) {
+            int[] to = destinations.get(i);
+            out[HEADER_BYTES + 2 + i] = (byte) squareIndex(to[0], to[1]);
+        }
+        return out;
+    }
+
+    private static void writeHeader(byte[] out, int type, int sideToMove, long version) {
+        out[0] = (byte) FORMAT_VERSION;
+        out[1] = (byte) type;
+        out[2] = (byte) sideToMove;
+        out[3] = (byte) (version >>> 24);
+        out[4] = (byte) (version >>> 16);
+        out[5] = (byte) (version >>> 8);
+        out[6] = (byte) version;
+    }
+}
@@ -0,0 +1,427 @@
+package main.java.com.checkers.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small JSON reader that parses UTF-8 bytes in place.
+ *
+ * It supports the full grammar (nested objects and arrays, string escapes
+ * including surrogate pairs, numbers with fraction and exponent, literals)
+ * without building an intermediate String of the whole document. One
+ * instance can be reused for many documents via {@link #reset}.
+ */
+public final class JsonReader {
+
+    // Deepest nesting of objects and arrays accepted, as in JsonWriter
+    private static final int MAX_DEPTH = 64;
+
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private final StringBuilder chars = new StringBuilder(64);
+
+    public JsonReader reset(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = offset + length;
+        return this;
+    }
+
+    /**
+     * Reads a top-level object into flat request parameters. Scalar members
+     * map to their text (strings unescaped, numbers and literals verbatim,
+     * null to null); nested objects and arrays map to their raw JSON text.
+     */
+    public Map<String, String> readParams() throws IOException {
+        Map<String, String> params = new HashMap<>();
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return finish(params);
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            params.put(key, readScalarText());
+            skipWhitespace();
+            byte b = next();
+            if (b == '}') {
+                return finish(params);
+            }
+            if (b != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Reads one complete value: Map, List, String, Long, Double, Boolean or null.
+     */
+    public Object readValue() throws IOException {
+        skipWhitespace();
+        Object value = parseValue(0);
+        skipWhitespace();
+        if (pos != limit) {
+            throw error("Trailing data");
+        }
+        return value;
+    }
+
+    private Map<String, String> finish(Map<String, String> params) throws IOException {
+        skipWhitespace();
+        if (pos != limit) {
+            throw error("Trailing data");
+        }
+        return params;
+    }
+
+    private String readScalarText() throws IOException {
+        byte b = peek();
+        switch (b) {
+            case '"':
+                return readString();
+            case '{':
+            case '[': {
+                int start = pos;
+                skipValue(0);
+                return new String(buf, start, pos - start, java.nio.charset.StandardCharsets.UTF_8);
+            }
+            case 'n':
+                expectLiteral("null");
+                return null;
+            case 't':
+                expectLiteral("true");
+                return "true";
+            case 'f':
+                expectLiteral("false");
+                return "false";
+            default: {
+                int start = pos;
+                skipNumber();
+                return asciiString(start, pos);
+            }
+        }
+    }
+
+    private Object parseValue(int depth) throws IOException {
+        byte b = peek();
+        if ((b == '{' || b == '[') && depth >= MAX_DEPTH) {
+            throw error("Nesting too deep");
+        }
+        switch (b) {
+            case '{': {
+                pos++;
+                Map<String, Object> map = new LinkedHashMap<>();
+                skipWhitespace();
+                if (peek() == '}') {
+                    pos++;
+                    return map;
+                }
+                while (true) {
+                    skipWhitespace();
+                    String key = readString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    map.put(key, parseValue(depth + 1));
+                    skipWhitespace();
+                    byte c = next();
+                    if (c == '}') {
+                        return map;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            case '[': {
+                pos++;
+                List<Object> list = new ArrayList<>();
+                skipWhitespace();
+                if (peek() == ']') {
+                    pos++;
+                    return list;
+                }
+                while (true) {
+                    skipWhitespace();
+                    list.add(parseValue(depth + 1));
+                    skipWhitespace();
+                    byte c = next();
+                    if (c == ']') {
+                        return list;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or ']'");
+                    }
+                }
+            }
+            case '"':
+                return readString();
+            case 'n':
+                expectLiteral("null");
+                return null;
+            case 't':
+                expectLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectLiteral("false");
+                return Boolean.FALSE;
+            default: {
+                int start = pos;
+                boolean integral = skipNumber();
+                String text = asciiString(start, pos);
+                if (integral && pos - start < 19) {
+                    return Long.parseLong(text);
+                }
+                return Double.parseDouble(text);
+            }
+        }
+    }
+
+    private void skipValue(int depth) throws IOException {
+        byte b = peek();
+        switch (b) {
+            case '{':
+            case '[': {
+                if (depth >= MAX_DEPTH) {
+                    throw error("Nesting too deep");
+                }
+                byte close = (b == '{') ? (byte) '}' : (byte) ']';
+                pos++;
+                skipWhitespace();
+                if (peek() == close) {
+                    pos++;
+                    return;
+                }
+                while (true) {
+                    skipWhitespace();
+                    if (b == '{') {
+                        readString();
+                        skipWhitespace();
+                        expect(':');
+                        skipWhitespace();
+                    }
+                    skipValue(depth + 1);
+                    skipWhitespace();
+                    byte c = next();
+                    if (c == close) {
+                        return;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '" + (char) close + "'");
+                    }
+                }
+            }
+            default:
+                readScalarText();
+        }
+    }
+
+    /**
+     * @return true if the number had no fraction or exponent
+     */
+    private boolean skipNumber() throws IOException {
+        int start = pos;
+        boolean integral = true;
+        if (pos < limit && buf[pos] == '-') {
+            pos++;
+        }
+        int digits = skipDigits();
+        if (digits == 0) {
+            throw error("Unexpected character");
+        }
+        if (digits > 1 && buf[pos - digits] == '0') {
+            throw error("Leading zero in number");
+        }
+        if (pos < limit && buf[pos] == '.') {
+            pos++;
+            integral = false;
+            if (skipDigits() == 0) {
+                throw error("Expected digits after '.'");
+            }
+        }
+        if (pos < limit && (buf[pos] == 'e' || buf[pos] == 'E')) {
+            pos++;
+            integral = false;
+            if (pos < limit && (buf[pos] == '+' || buf[pos] == '-')) {
+                pos++;
+            }
+            if (skipDigits() == 0) {
+                throw error("Expected exponent digits");
+            }
+        }
+        if (pos == start) {
+            throw error("Expected a value");
+        }
+        return integral;
+    }
+
+    private int skipDigits() {
+        int start = pos;
+        while (pos < limit && buf[pos] >= '0' && buf[pos] <= '9') {
+            pos++;
+        }
+        return pos - start;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        // Fast path: plain ASCII without escapes
+        int start = pos;
+        while (pos < limit) {
+            byte b = buf[pos];
+            if (b == '"') {
+                pos++;
+                return asciiString(start, pos - 1);
+            }
+            if (b == '\\' || b < 0x20) {
+                break;
+            }
+            pos++;
+        }
+        pos = start;
+
+        chars.setLength(0);
+        while (true) {
+            if (pos >= limit) {
+                throw error("Unterminated string");
+            }
+            int b = buf[pos++] & 0xFF;
+            if (b == '"') {
+                return chars.toString();
+            }
+            if (b == '\\') {
+                readEscape();
+            } else if (b < 0x20) {
+                throw error("Control character in string");
+            } else if (b < 0x80) {
+                chars.append((char) b);
+            } else {
+                readUtf8(b);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        if (pos >= limit) {
+            throw error("Unterminated escape");
+        }
+        byte e = buf[pos++];
+        switch (e) {
+            case '"' -> chars.append('"');
+            case '\\' -> chars.append('\\');
+            case '/' -> chars.append('/');
+            case 'b' -> chars.append('\b');
+            case 'f' -> chars.append('\f');
+            case 'n' -> chars.append('\n');
+            case 'r' -> chars.append('\r');
+            case 't' -> chars.append('\t');
+            case 'u' -> {
+                if (pos + 4 > limit) {
+                    throw error("Bad unicode escape");
+                }
+                int cp = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(buf[pos++], 16);
+                    if (digit < 0) {
+                        throw error("Bad unicode escape");
+                    }
+                    cp = (cp << 4) | digit;
+                }
+                chars.append((char) cp); // surrogate halves pair up naturally
+            }
+            default -> throw error("Bad escape");
+        }
+    }
+
+    private void readUtf8(int lead) throws IOException {
+        int extra;
+        int cp;
+        if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            cp = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            cp = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            cp = lead & 0x07;
+        } else {
+            throw error("Invalid UTF-8");
+        }
+        if (pos + extra > limit) {
+            throw error("Truncated UTF-8");
+        }
+        for (int i = 0; i < extra; i++) {
+            int b = buf[pos++] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                throw error("Invalid UTF-8");
+            }
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        chars.appendCodePoint(cp);
+    }
+
+    private String asciiString(int from, int to) {
+        chars.setLength(0);
+        for (int i = from; i < to; i++) {
+            chars.append((char) buf[i]);
+        }
+        return chars.toString();
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        if (pos + literal.length() > limit) {
+            throw error("Unexpected end of input");
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (buf[pos + i] != literal.charAt(i)) {
+                throw error("Unexpected character");
+            }
+        }
+        pos += literal.length();
+    }
+
+    private void skipWhitespace() {
+        while (pos < limit) {
+            byte b = buf[pos];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void expect(char c) throws IOException {
+        if (next() != c) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private byte peek() throws IOException {
+        if (pos >= limit) {
+            throw error("Unexpected end of input");
+        }
+        return buf[pos];
+    }
+
+    private byte next() throws IOException {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    private IOException error(String message) {
+        return new IOException("Malformed JSON: " + message + " at offset " + pos);
+    }
+}
@@ -0,0 +1,79 @@
+package main.java.com.checkers.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring buffer of the most recent latency samples (in milliseconds).
+ *
+ * Keeps running totals for the lifetime of the window and answers
+ * percentile queries over the retained samples only, so old spikes age out.
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long count;
+    private long total;
+    private long max;
+
+    public LatencyWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Window capacity must be positive");
+        }
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        count++;
+        total += millis;
+        if (millis > max) {
+            max = millis;
+        }
+    }
+
+    /**
+     * @param p percentile in [0, 100]
+     * @return the p-th percentile of the retained samples, or 0 if empty
+     */
+    public synchronized long percentile(double p) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return (count == 0) ? 0.0 : (double) total / count;
+    }
+
+    /**
+     * Mean over the retained samples only.
+     */
+    public synchronized double getRecentMean() {
+        if (size == 0) {
+            return 0.0;
+        }
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += samples[i];
+        }
+        return (double) sum / size;
+    }
+}
@@ -0,0 +1,100 @@
+package main.java.com.checkers.util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Mailbox that runs tasks one at a time, in submission order, on a shared
+ * executor. It owns no thread: when idle it costs one small object, and
+ * while busy at most one pool thread works for it.
+ *
+ * {@link #submitAsync} lets a task hold the mailbox until an asynchronous
+ * stage completes (e.g. an AI search on another pool) without blocking a
+ * pool thread while it waits.
+ */
+public class SerialExecutor {
+
+    private final Executor pool;
+    private final ArrayDeque<Consumer<Runnable>> tasks = new ArrayDeque<>();
+    private boolean active;
+
+    public SerialExecutor(Executor pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Runs work after every previously submitted task has finished.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(done -> {
+            try {
+                result.complete(work.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                done.run();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Starts an asynchronous operation in order; the next task only runs
+     * once the returned stage has completed.
+     */
+    public <T> CompletableFuture<T> submitAsync(Supplier<? extends CompletionStage<T>> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(done -> {
+            CompletionStage<T> stage;
+            try {
+                stage = work.get();
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                done.run();
+                return;
+            }
+            stage.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+                done.run();
+            });
+        });
+        return result;
+    }
+
+    private void enqueue(Consumer<Runnable> task) {
+        synchronized (this) {
+            tasks.addLast(task);
+            if (active) {
+                return;
+            }
+            active = true;
+        }
+        dispatchNext();
+    }
+
+    private void dispatchNext() {
+        Consumer<Runnable> next;
+        synchronized (this) {
+            next = tasks.pollFirst();
+            if (next == null) {
+                active = false;
+                return;
+            }
+        }
+        pool.execute(() -> next.accept(this::dispatchNext));
+    }
+
+    public synchronized int getQueuedCount() {
+        return tasks.size();
+    }
+}
@@ -0,0 +1,71 @@
+package main.java.com.checkers.util;
+
+import java.util.Properties;
+
+/**
+ * Typed view over the key/value pairs loaded from the .env file.
+ *
+ * Values may carry a trailing "# comment" (as in the README example),
+ * which is stripped before parsing. Missing or malformed values fall
+ * back to the supplied default.
+ */
+public class ServerConfig {
+
+    private final Properties props;
+
+    public ServerConfig(Properties props) {
+        this.props = (props != null) ? props : new Properties();
+    }
+
+    public ServerConfig() {
+        this(new Properties());
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        int comment = value.indexOf('#');
+        if (comment >= 0) {
+            value = value.substring(0, comment);
+        }
+        value = value.trim();
+        return value.isEmpty() ? defaultValue : value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.out.println("[Config] Invalid integer for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        try {
+            return Long.parseLong(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.out.println("[Config] Invalid number for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        try {
+            return Double.parseDouble(getString(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.out.println("[Config] Invalid number for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.equalsIgnoreCase("true") || value.equals("1") || value.equalsIgnoreCase("yes");
+    }
+}
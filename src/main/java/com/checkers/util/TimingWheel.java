@@ -0,0 +1,204 @@
+package main.java.com.checkers.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck) for coarse timeouts.
+ *
+ * Each level has {@code WHEEL_SIZE} slots; a slot on level L spans
+ * WHEEL_SIZE^L ticks. Scheduling and cancelling are O(1), and each tick only
+ * touches the current level-0 slot plus, every WHEEL_SIZE^L ticks, one slot of
+ * level L whose entries are cascaded down. Nothing ever scans every timer.
+ *
+ * Deadlines beyond the top level are clamped to its horizon; callers that
+ * need longer timeouts should re-check and reschedule when the timer fires.
+ */
+public class TimingWheel<T> {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int LEVELS = 4;
+
+    /**
+     * Handle for a scheduled timer.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final long[] levelSpan = new long[LEVELS + 1];
+    // LEVELS * WHEEL_SIZE buckets, level by level
+    private final List<ArrayDeque<Timeout<T>>> slots = new ArrayList<>(LEVELS * WHEEL_SIZE);
+    private final Consumer<T> onExpire;
+    private long currentTick;
+    private int pending;
+    private Thread ticker;
+    private volatile boolean running;
+
+    public TimingWheel(long tickMillis, Consumer<T> onExpire) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.onExpire = onExpire;
+        this.startMillis = System.currentTimeMillis();
+
+        levelSpan[0] = 1;
+        for (int level = 1; level <= LEVELS; level++) {
+            levelSpan[level] = levelSpan[level - 1] * WHEEL_SIZE;
+        }
+
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Schedules item to expire after roughly delayMillis (rounded up to a tick).
+     */
+    public synchronized Timeout<T> schedule(T item, long delayMillis) {
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+        ticks = Math.min(ticks, levelSpan[LEVELS] - 1);
+        Timeout<T> timeout = new Timeout<>(item, currentTick + ticks);
+        place(timeout);
+        pending++;
+        return timeout;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long remaining = timeout.deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= levelSpan[level + 1]) {
+            level++;
+        }
+        int slot = (int) ((timeout.deadlineTick / levelSpan[level]) % WHEEL_SIZE);
+        bucket(level, slot).addLast(timeout);
+    }
+
+    private ArrayDeque<Timeout<T>> bucket(int level, int slot) {
+        return slots.get(level * WHEEL_SIZE + slot);
+    }
+
+    /**
+     * Advances the wheel to the given wall-clock time and fires every timer
+     * that has come due. Callbacks run on the calling thread, outside the lock.
+     */
+    public void advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = (nowMillis - startMillis) / tickMillis;
+            while (currentTick < targetTick) {
+                tick(expired);
+            }
+        }
+        for (T item : expired) {
+            try {
+                onExpire.accept(item);
+            } catch (RuntimeException e) {
+                System.out.println("[TimingWheel] Expiry callback failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void tick(List<T> expired) {
+        currentTick++;
+
+        // Cascade higher levels whose slot boundary we just crossed
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if (currentTick % levelSpan[level] == 0) {
+                int slot = (int) ((currentTick / levelSpan[level]) % WHEEL_SIZE);
+                ArrayDeque<Timeout<T>> bucket = bucket(level, slot);
+                int count = bucket.size();
+                for (int i = 0; i < count; i++) {
+                    Timeout<T> timeout = bucket.pollFirst();
+                    if (timeout.cancelled) {
+                        pending--;
+                    } else if (timeout.deadlineTick <= currentTick) {
+                        pending--;
+                        expired.add(timeout.item);
+                    } else {
+                        place(timeout);
+                    }
+                }
+            }
+        }
+
+        ArrayDeque<Timeout<T>> bucket = bucket(0, (int) (currentTick % WHEEL_SIZE));
+        int count = bucket.size();
+        for (int i = 0; i < count; i++) {
+            Timeout<T> timeout = bucket.pollFirst();
+            if (timeout.cancelled) {
+                pending--;
+            } else if (timeout.deadlineTick <= currentTick) {
+                pending--;
+                expired.add(timeout.item);
+            } else {
+                bucket.addLast(timeout);
+            }
+        }
+    }
+
+    /**
+     * Starts a daemon thread that advances the wheel once per tick.
+     */
+    public synchronized void start(String threadName) {
+        if (running) {
+            return;
+        }
+        running = true;
+        ticker = new Thread(() -> {
+            while (running) {
+                try {
+                    Thread.sleep(tickMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                advanceTo(System.currentTimeMillis());
+            }
+        }, threadName);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+    }
+
+    /**
+     * @return timers scheduled and not yet fired (cancelled ones count until
+     *         their slot is next visited)
+     */
+    public synchronized int getPendingCount() {
+        return pending;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+}